@@ -2,10 +2,14 @@ package io.github.wypeboard.island.escape;
 
 import io.github.wypeboard.island.escape.engine.GameLoop;
 
+import java.util.Arrays;
+
 public class Main {
 
     public static void main(String[] args) {
         GameLoop gameLoop = GameLoop.getInstance();
+        // Simulation on its own thread while in play, see GameLoop#setThreadedUpdate
+        gameLoop.setThreadedUpdate(Arrays.asList(args).contains("--threaded"));
         gameLoop.run();
     }
-}
\ No newline at end of file
+}
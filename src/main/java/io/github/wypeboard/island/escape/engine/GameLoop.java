@@ -1,11 +1,19 @@
 package io.github.wypeboard.island.escape.engine;
 
+import io.github.wypeboard.island.escape.engine.graphics.AsyncTextureLoader;
+import io.github.wypeboard.island.escape.engine.graphics.RenderQueue;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
+import io.github.wypeboard.island.escape.engine.graphics.RenderStats;
 import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
 import io.github.wypeboard.island.escape.engine.graphics.WindowManager;
 import io.github.wypeboard.island.escape.engine.input.InputManager;
 import io.github.wypeboard.island.escape.engine.input.MouseManager;
+import io.github.wypeboard.island.escape.engine.profiling.Profiler;
+import io.github.wypeboard.island.escape.engine.profiling.ProfilerOverlay;
 import io.github.wypeboard.island.escape.engine.state.GameStateManager;
 import io.github.wypeboard.island.escape.engine.state.MainMenuState;
+import io.github.wypeboard.island.escape.engine.ui.UIManager;
+import io.github.wypeboard.island.escape.utils.Logger;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
 
@@ -16,11 +24,30 @@ public class GameLoop {
     private final InputManager inputManager;
     private final MouseManager mouseManager;
     private final GameStateManager gameStateManager;
-    private boolean running = false;
+    private volatile boolean running = false;
 
-    // Frame rate control
-    private final double TARGET_FPS = 60.0;
-    private final double FRAME_TIME = 1.0 / TARGET_FPS;
+    // Simulation runs in fixed ticks; rendering runs as often as v-sync or the render rate allows
+    private static final double DEFAULT_TICK_RATE = 60.0;
+    // Past this many ticks in one frame the rest of the backlog is dropped, so a long hitch
+    // (GC pause, window drag) costs one slow frame instead of a spiral of catch-up updates
+    private static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+    // Sleeping is only precise to a millisecond or two; the rest of the wait is spun
+    private static final double SPIN_WAIT_SECONDS = 0.002;
+
+    private static final int PROFILE_UPDATE = Profiler.scope("GameLoop.update");
+    private static final int PROFILE_RENDER = Profiler.scope("GameLoop.render");
+
+    private double tickRate = DEFAULT_TICK_RATE;
+    private double tickTime = 1.0 / DEFAULT_TICK_RATE;
+    private int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+    // Frames per second, 0 for no limit beyond v-sync
+    private double renderRate;
+
+    // Updates on their own thread while the current state renders from snapshots
+    private boolean threadedUpdate;
+    private SimulationThread simulation;
+
+    private final ProfilerOverlay profilerOverlay = new ProfilerOverlay();
 
     private GameLoop() {
         // Private constructor for singleton
@@ -63,6 +90,11 @@ public class GameLoop {
     }
 
     private void loop() {
+        if (threadedUpdate) {
+            simulation = new SimulationThread(this::update, gameStateManager::isThreadedUpdateAllowed,
+                    tickTime, maxCatchUpTicks);
+            simulation.start();
+        }
         double lastFrameTime = GLFW.glfwGetTime();
         double accumulator = 0.0;
         // Main game loop
@@ -71,28 +103,101 @@ public class GameLoop {
             double deltaTime = currentTime - lastFrameTime;
             lastFrameTime = currentTime;
 
+            if (simulation != null) {
+                simulation.checkFailure();
+                if (gameStateManager.isThreadedUpdateAllowed()) {
+                    if (!simulation.isActive()) {
+                        simulation.resume();
+                    }
+                    accumulator = 0.0;
+                    render(simulation.getAlpha());
+                    windowManager.update();
+                    waitForNextFrame(currentTime);
+                    continue;
+                }
+                // States that render from their own fields, and switching states, need updates on this thread
+                if (simulation.isActive()) {
+                    simulation.pause();
+                }
+            }
+
             accumulator += deltaTime;
 
-            while (accumulator >= FRAME_TIME) {
-                update(FRAME_TIME);
-                accumulator -= FRAME_TIME;
+            int ticks = 0;
+            while (accumulator >= tickTime && ticks < maxCatchUpTicks) {
+                update(tickTime);
+                accumulator -= tickTime;
+                ticks++;
+            }
+            if (accumulator >= tickTime) {
+                // Keep only the fraction of a tick, so interpolation stays smooth
+                int dropped = (int) (accumulator / tickTime);
+                accumulator -= dropped * tickTime;
+                Logger.debugThrottled(getClass(), "dropped_ticks", "Fell behind, dropped " + dropped + " ticks");
             }
 
-            render();
+            render((float) (accumulator / tickTime));
 
             windowManager.update();
+            waitForNextFrame(currentTime);
+        }
+    }
+
+    /**
+     * With a render rate set, wait out the rest of the frame that started at {@code frameStart}.
+     */
+    private void waitForNextFrame(double frameStart) {
+        if (renderRate <= 0) {
+            return;
+        }
+        double frameEnd = frameStart + 1.0 / renderRate;
+        double remaining = frameEnd - GLFW.glfwGetTime();
+        if (remaining > SPIN_WAIT_SECONDS) {
+            try {
+                Thread.sleep((long) ((remaining - SPIN_WAIT_SECONDS) * 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        while (GLFW.glfwGetTime() < frameEnd) {
+            Thread.onSpinWait();
         }
     }
 
     /**
      * Draw objects
+     *
+     * @param alpha fraction of a tick since the last update, passed on so states can draw between ticks
      */
-    private void render() {
+    private void render(float alpha) {
+        Profiler.beginFrame();
+        Profiler.begin(PROFILE_RENDER);
+        RenderStats.beginFrame();
+        RenderState.getInstance().reset();
+        TextRenderer.getInstance().beginFrame();
+        // A few finished texture loads per frame, so a burst of them doesn't stall one frame
+        AsyncTextureLoader.getInstance().processUploads();
+        // Only logs when the count changes, e.g. when the camera reveals a new tile type
+        Logger.debugOnChange(getClass(), "texture_binds", "Texture binds per frame",
+                RenderStats.getLastFrameTextureBinds());
+        Logger.debugOnChange(getClass(), "draw_calls", "Draw calls per frame",
+                RenderStats.getLastFrameDrawCalls());
+        Logger.debugOnChange(getClass(), "state_changes", "State changes per frame",
+                RenderStats.getLastFrameStateChanges());
+
         // Clear the screen
         GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
 
-        // Render current game state
-        gameStateManager.render();
+        // Render current game state — states submit to the render queue, which then draws it all in one pass
+        gameStateManager.render(alpha);
+        RenderQueue.getInstance().execute();
+        Profiler.end(PROFILE_RENDER);
+
+        // Outside the render scope, so the overlay doesn't measure itself
+        if (Profiler.isEnabled()) {
+            profilerOverlay.render();
+        }
     }
 
     /**
@@ -101,6 +206,11 @@ public class GameLoop {
      * @param deltaTime time since last frame
      */
     private void update(double deltaTime) {
+        Profiler.begin(PROFILE_UPDATE);
+        // Input that arrived since the last update, applied on this update's thread
+        inputManager.processEvents();
+        mouseManager.processEvents();
+
         // Check for global commands (like quitting)
         handleGlobalInput();
 
@@ -111,22 +221,33 @@ public class GameLoop {
         // These should be kept last, as they clear the input
         inputManager.update();
         mouseManager.update();
-
+        Profiler.end(PROFILE_UPDATE);
     }
 
     /**
      * Global input handling that works across all states
      */
     private void handleGlobalInput() {
-
+        if (inputManager.isKeyJustPressed(GLFW.GLFW_KEY_F4)) {
+            Profiler.setEnabled(!Profiler.isEnabled());
+        }
     }
 
     private void cleanup() {
         System.out.println("Cleaning up the game engine");
 
+        if (simulation != null) {
+            simulation.shutdown();
+            simulation = null;
+        }
+
         if (gameStateManager != null) {
             gameStateManager.cleanup();
         }
+        UIManager.getInstance().cleanup();
+        AsyncTextureLoader.getInstance().cleanup();
+        profilerOverlay.cleanup();
+        Profiler.cleanup();
         if (windowManager != null) {
             windowManager.cleanup();
         }
@@ -138,6 +259,63 @@ public class GameLoop {
         running = false;
     }
 
+    public boolean isThreadedUpdate() {
+        return threadedUpdate;
+    }
+
+    /**
+     * Run updates on a simulation thread while the current state renders from snapshots
+     * (see {@link io.github.wypeboard.island.escape.engine.state.SnapshotGameState}), so a slow frame
+     * no longer holds up input handling and simulation. Set before {@link #run()}; the tick rate and
+     * catch-up limit are fixed from then on.
+     */
+    public void setThreadedUpdate(boolean threadedUpdate) {
+        this.threadedUpdate = threadedUpdate;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Simulation updates per second; each update gets {@code 1 / tickRate} as its delta time.
+     */
+    public void setTickRate(double tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+        this.tickRate = tickRate;
+        this.tickTime = 1.0 / tickRate;
+    }
+
+    public int getMaxCatchUpTicks() {
+        return maxCatchUpTicks;
+    }
+
+    /**
+     * Most updates run in one frame to catch up; simulation time beyond that is dropped.
+     */
+    public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+        if (maxCatchUpTicks < 1) {
+            throw new IllegalArgumentException("Need at least one tick per frame: " + maxCatchUpTicks);
+        }
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    public double getRenderRate() {
+        return renderRate;
+    }
+
+    /**
+     * Frames per second to render at most, independent of the tick rate; 0 leaves it to v-sync.
+     */
+    public void setRenderRate(double renderRate) {
+        if (renderRate < 0) {
+            throw new IllegalArgumentException("Render rate must not be negative: " + renderRate);
+        }
+        this.renderRate = renderRate;
+    }
+
     // Getters for other systems that might need access
     public WindowManager getWindowManager() {
         return windowManager;
@@ -0,0 +1,189 @@
+package io.github.wypeboard.island.escape.engine;
+
+import io.github.wypeboard.island.escape.utils.Logger;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Runs fixed-rate updates on a thread of its own, for GameLoop's threaded mode. The same catch-up rule
+ * as the single-threaded loop applies: at most {@code maxCatchUpTicks} per wake-up, the rest dropped.
+ * <p>
+ * GameLoop resumes it while the current state supports threaded updates and pauses it otherwise;
+ * {@link #pause()} returns only once no update is running, so the GL thread can then update itself.
+ */
+final class SimulationThread implements Runnable {
+
+    private final Thread thread;
+    private final DoubleConsumer tick;
+    private final BooleanSupplier canTick;
+    private final double tickTime;
+    private final int maxCatchUpTicks;
+
+    private final Object lock = new Object();
+    // All guarded by lock: active is what the GL thread asked for, running what this thread is doing
+    private boolean active;
+    private boolean running;
+    private boolean shutdown;
+
+    // GLFW time of the last finished update, for the GL thread's interpolation
+    private volatile double lastTickTime;
+    // What ended the thread, rethrown on the GL thread by checkFailure()
+    private volatile RuntimeException failure;
+
+    /**
+     * @param tick    runs one update of the given length
+     * @param canTick checked before every update; while false the thread idles (e.g. a state switch is pending)
+     */
+    SimulationThread(DoubleConsumer tick, BooleanSupplier canTick, double tickTime, int maxCatchUpTicks) {
+        this.tick = tick;
+        this.canTick = canTick;
+        this.tickTime = tickTime;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        this.thread = new Thread(this, "Simulation");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    boolean isActive() {
+        synchronized (lock) {
+            return active;
+        }
+    }
+
+    void resume() {
+        synchronized (lock) {
+            active = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stop updating, waiting for an update in progress to finish.
+     */
+    void pause() {
+        synchronized (lock) {
+            active = false;
+            lock.notifyAll();
+            while (running) {
+                awaitUninterruptibly();
+            }
+        }
+    }
+
+    void shutdown() {
+        pause();
+        synchronized (lock) {
+            shutdown = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rethrow, on the calling thread, whatever an update threw on the simulation thread.
+     */
+    void checkFailure() {
+        RuntimeException e = failure;
+        if (e != null) {
+            throw new RuntimeException("Simulation thread failed", e);
+        }
+    }
+
+    /**
+     * Fraction of a tick since the last update, 0 to 1.
+     */
+    float getAlpha() {
+        double alpha = (GLFW.glfwGetTime() - lastTickTime) / tickTime;
+        return (float) Math.max(0.0, Math.min(1.0, alpha));
+    }
+
+    @Override
+    public void run() {
+        try {
+            simulate();
+        } catch (RuntimeException e) {
+            failure = e;
+            synchronized (lock) {
+                active = false;
+                running = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void simulate() {
+        double lastTime = 0;
+        double accumulator = 0;
+        while (true) {
+            synchronized (lock) {
+                if (!running) {
+                    while (!active && !shutdown) {
+                        awaitUninterruptibly();
+                    }
+                    if (shutdown) {
+                        return;
+                    }
+                    // Time spent paused is not owed to the simulation
+                    running = true;
+                    lastTime = GLFW.glfwGetTime();
+                    lastTickTime = lastTime;
+                    accumulator = 0;
+                }
+            }
+
+            double now = GLFW.glfwGetTime();
+            accumulator += now - lastTime;
+            lastTime = now;
+
+            int ticks = 0;
+            while (accumulator >= tickTime && ticks < maxCatchUpTicks && canTick.getAsBoolean()) {
+                tick.accept(tickTime);
+                accumulator -= tickTime;
+                lastTickTime = GLFW.glfwGetTime();
+                ticks++;
+            }
+            if (accumulator >= tickTime) {
+                int dropped = (int) (accumulator / tickTime);
+                accumulator -= dropped * tickTime;
+                if (ticks == maxCatchUpTicks) {
+                    Logger.debugThrottled(getClass(), "dropped_ticks", "Fell behind, dropped " + dropped + " ticks");
+                }
+            }
+
+            synchronized (lock) {
+                if (active) {
+                    long waitMillis = (long) ((tickTime - accumulator) * 1000);
+                    if (waitMillis > 0) {
+                        // Woken early by pause()
+                        awaitUninterruptibly(waitMillis);
+                    }
+                }
+                if (!active) {
+                    running = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void awaitUninterruptibly() {
+        awaitUninterruptibly(0);
+    }
+
+    private void awaitUninterruptibly(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.wypeboard.island.escape.engine.benchmark;
+
+import io.github.wypeboard.island.escape.engine.graphics.BitmapFont;
+import io.github.wypeboard.island.escape.engine.graphics.GlyphTable;
+import org.lwjgl.stb.STBTTBakedChar;
+import org.lwjgl.stb.STBTruetype;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Microbenchmark for the per-glyph layout path: turning one character into a positioned, UV-mapped quad.
+ * Compares the flat {@link GlyphTable} against the old approach of pushing a MemoryStack frame and
+ * reading STB's baked-char struct accessors for every character.
+ * <p>
+ * CPU only — no window or GL context is needed. Run with {@code gradle glyphBenchmark}.
+ */
+public final class GlyphLayoutBenchmark {
+
+    private static final String FONT_PATH = "assets/fonts/FiraSans-Regular.ttf";
+    private static final float FONT_SIZE = 16f;
+    private static final int ATLAS_SIZE = 512;
+    private static final int FIRST_CHAR = 32;
+    private static final int CHAR_COUNT = 96;
+
+    private static final String SAMPLE = "Bring me 10 wood and I'll tell you what I know. [E] continue";
+    private static final int ITERATIONS = 200_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // Everything the sinks see is summed here and printed, so the JIT can't discard the work
+    private static double checksum;
+
+    private static final GlyphTable.GlyphSink SINK = (x0, y0, x1, y1, u0, v0, u1, v1) ->
+            checksum += x0 + y0 + x1 + y1 + u0 + v0 + u1 + v1;
+
+    private GlyphLayoutBenchmark() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) {
+        ByteBuffer ttf = BitmapFont.loadFontFile(FONT_PATH);
+        ByteBuffer bitmap = MemoryUtil.memAlloc(ATLAS_SIZE * ATLAS_SIZE);
+
+        GlyphTable table = GlyphTable.bake(ttf, FONT_SIZE, bitmap, ATLAS_SIZE, ATLAS_SIZE, FIRST_CHAR, CHAR_COUNT);
+        STBTTBakedChar.Buffer charData = STBTTBakedChar.malloc(CHAR_COUNT);
+        STBTruetype.stbtt_BakeFontBitmap(ttf, FONT_SIZE, bitmap, ATLAS_SIZE, ATLAS_SIZE, FIRST_CHAR, charData);
+
+        System.out.println("Glyph layout, " + SAMPLE.length() + " chars x " + ITERATIONS + " iterations per round");
+        report("glyph table", () -> tableLayout(table, SAMPLE));
+        report("struct accessors + MemoryStack", () -> legacyLayout(charData, SAMPLE));
+        System.out.println("checksum " + checksum);
+
+        charData.free();
+        MemoryUtil.memFree(bitmap);
+        MemoryUtil.memFree(ttf);
+    }
+
+    private static void report(String name, Runnable layout) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runRound(layout);
+        }
+        double[] nsPerGlyph = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            nsPerGlyph[round] = runRound(layout);
+        }
+        Arrays.sort(nsPerGlyph);
+        System.out.printf("  %-32s median %6.2f ns/glyph, best %6.2f ns/glyph%n",
+                name, nsPerGlyph[MEASURED_ROUNDS / 2], nsPerGlyph[0]);
+    }
+
+    private static double runRound(Runnable layout) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            layout.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return (double) elapsed / ((long) ITERATIONS * SAMPLE.length());
+    }
+
+    /**
+     * The per-glyph path of the glyph cache once the glyph is resident: slot lookup plus array reads.
+     */
+    private static void tableLayout(GlyphTable table, String text) {
+        float x = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int slot = text.charAt(i) - FIRST_CHAR;
+            if (slot >= 0 && slot < CHAR_COUNT) {
+                x = table.putGlyph(slot, x, 0, 1.0f, SINK);
+            }
+        }
+    }
+
+    /**
+     * The per-character path BitmapFont used before the glyph table, minus the GL calls.
+     */
+    private static void legacyLayout(STBTTBakedChar.Buffer charData, String text) {
+        float x = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int idx = text.charAt(i) - FIRST_CHAR;
+            if (idx < 0 || idx >= CHAR_COUNT) {
+                continue;
+            }
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                FloatBuffer xBuf = stack.floats(x);
+                FloatBuffer yBuf = stack.floats(0);
+
+                STBTTBakedChar bakedChar = charData.get(idx);
+
+                float x0 = x + bakedChar.xoff();
+                float y0 = bakedChar.yoff();
+                float x1 = x0 + (bakedChar.x1() - bakedChar.x0());
+                float y1 = y0 + (bakedChar.y1() - bakedChar.y0());
+
+                float u0 = (float) bakedChar.x0() / ATLAS_SIZE;
+                float v0 = (float) bakedChar.y0() / ATLAS_SIZE;
+                float u1 = (float) bakedChar.x1() / ATLAS_SIZE;
+                float v1 = (float) bakedChar.y1() / ATLAS_SIZE;
+
+                SINK.glyph(x0, y0, x1, y1, u0, v0, u1, v1);
+                checksum += xBuf.get(0) + yBuf.get(0);
+                x += bakedChar.xadvance();
+            }
+        }
+    }
+}
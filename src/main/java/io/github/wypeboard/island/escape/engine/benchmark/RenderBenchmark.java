@@ -0,0 +1,404 @@
+package io.github.wypeboard.island.escape.engine.benchmark;
+
+import io.github.wypeboard.island.escape.engine.graphics.AsyncTextureLoader;
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderQueue;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
+import io.github.wypeboard.island.escape.engine.graphics.RenderStats;
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
+import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
+import io.github.wypeboard.island.escape.engine.graphics.TextureCache;
+import io.github.wypeboard.island.escape.engine.graphics.TextureFilter;
+import io.github.wypeboard.island.escape.engine.graphics.TileTextureManager;
+import io.github.wypeboard.island.escape.engine.graphics.WindowManager;
+import io.github.wypeboard.island.escape.engine.graphics.world.Camera;
+import io.github.wypeboard.island.escape.engine.graphics.world.Grid;
+import io.github.wypeboard.island.escape.engine.graphics.world.GridRenderer;
+import io.github.wypeboard.island.escape.engine.graphics.world.TileType;
+import io.github.wypeboard.island.escape.engine.ui.UILabel;
+import io.github.wypeboard.island.escape.engine.ui.UIManager;
+import io.github.wypeboard.island.escape.engine.ui.UIPanel;
+import io.github.wypeboard.island.escape.game.entity.EntityManager;
+import io.github.wypeboard.island.escape.game.entity.type.Npc;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.stb.STBImageWrite;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Renders scripted scenes — grid sizes, zoom levels, entity counts, a text-heavy HUD — for a fixed
+ * number of frames each, and writes frame-time percentiles, draw calls and state changes as JSON.
+ * <p>
+ * Runs in a headless context ({@link WindowManager#initHeadless(int, int)}), so it works on a machine
+ * without a GPU through Mesa's llvmpipe. Every frame ends with glFinish, so the times include the
+ * GL work and not just submitting it. Run with {@code gradle renderBenchmark}; the optional arguments
+ * are the measured frames per scene and the output path.
+ */
+public final class RenderBenchmark {
+
+    private static final int VIEWPORT_WIDTH = 1280;
+    private static final int VIEWPORT_HEIGHT = 720;
+    private static final int DEFAULT_FRAMES = 300;
+    private static final int WARMUP_FRAMES = 30;
+    private static final String DEFAULT_OUTPUT = "build/render-benchmark.json";
+
+    private static final int TILE_SIZE = 32;
+    // Same seed every run, so the scenes are identical between runs and machines
+    private static final long SEED = 42L;
+    // World pixels the camera drifts per frame, so chunk and overview caches see a moving view
+    private static final float PAN_PER_FRAME = 2f;
+    // Generated tile textures: twice the tile size, so at 0.5x zoom every texel is minified 4:1
+    private static final String TEXTURE_DIRECTORY = "build/benchmark-textures";
+    private static final int TEXTURE_SIZE = 64;
+    private static final int TEXTURE_VARIATIONS = 2;
+
+    private static final Scene[] SCENES = {
+            new Scene("grid-64-immediate", 64, 1.5f, GridRenderer.RenderMode.IMMEDIATE, 0, 0),
+            new Scene("grid-256-batched", 256, 1.0f, GridRenderer.RenderMode.BATCHED, 0, 0),
+            new Scene("grid-256-chunked", 256, 1.0f, GridRenderer.RenderMode.CHUNKED, 0, 0),
+            new Scene("grid-256-instanced", 256, 1.0f, GridRenderer.RenderMode.INSTANCED, 0, 0),
+            new Scene("grid-1024-zoomed-out", 1024, 0.5f, GridRenderer.RenderMode.CHUNKED, 0, 0),
+            new Scene("entities-1000", 128, 1.0f, GridRenderer.RenderMode.CHUNKED, 1000, 0),
+            new Scene("entities-10000", 128, 0.5f, GridRenderer.RenderMode.CHUNKED, 10000, 0),
+            new Scene("hud-text-200", 64, 1.5f, GridRenderer.RenderMode.CHUNKED, 0, 200),
+            // Same view with the overview off, so the difference is texture sampling at low zoom
+            new Scene("tiles-256-zoom-0.5-nearest", 256, 0.5f, GridRenderer.RenderMode.BATCHED, 0, 0,
+                    TextureFilter.NEAREST),
+            new Scene("tiles-256-zoom-0.5-mipmapped", 256, 0.5f, GridRenderer.RenderMode.BATCHED, 0, 0,
+                    TextureFilter.MIPMAPPED),
+    };
+
+    private RenderBenchmark() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        Path output = Path.of(args.length > 1 ? args[1] : DEFAULT_OUTPUT);
+
+        WindowManager windowManager = WindowManager.getInstance();
+        windowManager.initHeadless(VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+        TextRenderer.getInstance().init();
+        // The generated textures are rewritten every run, so caching them would only churn the cache
+        TextureCache.getInstance().setEnabled(false);
+        writeTileTextures();
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"renderer\": ").append(quote(GL11.glGetString(GL11.GL_RENDERER))).append(",\n");
+        json.append("  \"glVersion\": ").append(quote(GL11.glGetString(GL11.GL_VERSION))).append(",\n");
+        json.append("  \"viewport\": [").append(VIEWPORT_WIDTH).append(", ").append(VIEWPORT_HEIGHT).append("],\n");
+        json.append("  \"framesPerScene\": ").append(frames).append(",\n");
+        json.append("  \"scenes\": [\n");
+        try {
+            for (int i = 0; i < SCENES.length; i++) {
+                Result result = run(SCENES[i], frames);
+                System.out.printf(Locale.ROOT, "%-24s p50 %7.3f ms  p99 %7.3f ms  draw calls %5.0f  state changes %5.0f%n",
+                        SCENES[i].name, percentile(result.frameMillis, 0.50), percentile(result.frameMillis, 0.99),
+                        mean(result.drawCalls), mean(result.stateChanges));
+                result.appendJson(json);
+                json.append(i + 1 < SCENES.length ? ",\n" : "\n");
+            }
+        } finally {
+            UIManager.getInstance().cleanup();
+            AsyncTextureLoader.getInstance().cleanup();
+            TextRenderer.getInstance().cleanup();
+            windowManager.cleanup();
+        }
+        json.append("  ]\n}\n");
+
+        try {
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            Files.writeString(output, json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + output, e);
+        }
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static Result run(Scene scene, int frames) {
+        Random random = new Random(SEED);
+        Grid grid = buildGrid(scene.gridSize, random);
+        GridRenderer gridRenderer = new GridRenderer(grid, TILE_SIZE);
+        gridRenderer.setRenderMode(scene.renderMode);
+        gridRenderer.setGridLinesVisible(false);
+        TileTextureManager tileTextures = null;
+        if (scene.tileFilter != null) {
+            tileTextures = new TileTextureManager(TEXTURE_DIRECTORY);
+            tileTextures.setFilter(scene.tileFilter);
+            tileTextures.loadTileTextures();
+            gridRenderer.setTextureManager(tileTextures);
+            gridRenderer.setOverviewZoom(0);
+        }
+
+        float worldSize = scene.gridSize * TILE_SIZE;
+        Camera camera = new Camera(worldSize / 4, worldSize / 4, scene.zoom);
+        camera.setZoom(scene.zoom);
+
+        EntityManager entityManager = new EntityManager();
+        SpriteBatch entityBatch = new SpriteBatch();
+        String[] noDialogue = new String[0];
+        for (int i = 0; i < scene.entityCount; i++) {
+            entityManager.add(new Npc(random.nextFloat() * worldSize, random.nextFloat() * worldSize, "NPC " + i, noDialogue));
+        }
+
+        UILabel frameLabel = buildHud(scene.hudLabels);
+
+        RenderQueue.Command worldCommand = () -> gridRenderer.renderer(camera, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+        RenderQueue.Command entitiesCommand = () -> {
+            GL11.glPushMatrix();
+            GL11.glTranslatef(VIEWPORT_WIDTH / 2f, VIEWPORT_HEIGHT / 2f, 0);
+            GL11.glScalef(camera.getZoom(), camera.getZoom(), 1);
+            GL11.glTranslatef(-camera.getX(), -camera.getY(), 0);
+            entityBatch.begin();
+            entityManager.render(entityBatch, 1.0f, camera, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+            entityBatch.end();
+            GL11.glPopMatrix();
+        };
+
+        Result result = new Result(scene, frames);
+        try {
+            for (int frame = 0; frame < WARMUP_FRAMES + frames; frame++) {
+                camera.move(PAN_PER_FRAME, PAN_PER_FRAME / 2);
+                if (frameLabel != null) {
+                    // One label changes every frame, like a clock or a counter would
+                    frameLabel.setText("Frame " + frame);
+                }
+
+                long start = System.nanoTime();
+                renderFrame(worldCommand, entitiesCommand);
+                GL11.glFinish();
+                long elapsed = System.nanoTime() - start;
+                WindowManager.getInstance().update();
+                // Rolls this frame's counters into the "last frame" getters
+                RenderStats.beginFrame();
+
+                if (frame >= WARMUP_FRAMES) {
+                    result.record(frame - WARMUP_FRAMES, elapsed, entityManager.getVisibleCount());
+                }
+            }
+        } finally {
+            UIManager.getInstance().clearAll();
+            entityManager.clear();
+            entityBatch.cleanup();
+            gridRenderer.cleanup();
+            if (tileTextures != null) {
+                tileTextures.cleanup();
+            }
+        }
+        result.finish();
+        return result;
+    }
+
+    /**
+     * The same sequence GameLoop uses, minus the logging.
+     */
+    private static void renderFrame(RenderQueue.Command worldCommand, RenderQueue.Command entitiesCommand) {
+        RenderState.getInstance().reset();
+        TextRenderer.getInstance().beginFrame();
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+
+        RenderQueue queue = RenderQueue.getInstance();
+        queue.submit(RenderQueue.LAYER_WORLD, BlendMode.OPAQUE, null, worldCommand);
+        queue.submit(RenderQueue.LAYER_ENTITIES, BlendMode.ALPHA, null, entitiesCommand);
+        UIManager.getInstance().render();
+        queue.execute();
+    }
+
+    /**
+     * Random tiles weighted towards water, like a map of islands.
+     */
+    private static Grid buildGrid(int size, Random random) {
+        Grid grid = new Grid(size, size);
+        TileType[] land = {TileType.SAND, TileType.DIRT, TileType.GRASS, TileType.TREE};
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                grid.setTile(x, y, random.nextInt(3) == 0 ? land[random.nextInt(land.length)] : TileType.WATER);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Fine-grained noise for every tile type, the worst case for minification without mipmaps.
+     */
+    private static void writeTileTextures() {
+        Path directory = Path.of(TEXTURE_DIRECTORY);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create " + directory, e);
+        }
+        Random random = new Random(SEED);
+        ByteBuffer pixels = MemoryUtil.memAlloc(TEXTURE_SIZE * TEXTURE_SIZE * 4);
+        try {
+            for (TileType type : TileType.values()) {
+                for (int variation = 1; variation <= TEXTURE_VARIATIONS; variation++) {
+                    for (int i = 0; i < TEXTURE_SIZE * TEXTURE_SIZE; i++) {
+                        float shade = 0.5f + random.nextFloat();
+                        pixels.put(i * 4, (byte) Math.min(255, (int) (type.getFallbackR() * shade * 255)));
+                        pixels.put(i * 4 + 1, (byte) Math.min(255, (int) (type.getFallbackG() * shade * 255)));
+                        pixels.put(i * 4 + 2, (byte) Math.min(255, (int) (type.getFallbackB() * shade * 255)));
+                        pixels.put(i * 4 + 3, (byte) 255);
+                    }
+                    String file = directory.resolve(String.format(Locale.ROOT, "%s_%02d.png",
+                            type.getTextureName(), variation)).toString();
+                    if (!STBImageWrite.stbi_write_png(file, TEXTURE_SIZE, TEXTURE_SIZE, 4, pixels, TEXTURE_SIZE * 4)) {
+                        throw new RuntimeException("Failed to write " + file);
+                    }
+                }
+            }
+        } finally {
+            MemoryUtil.memFree(pixels);
+        }
+    }
+
+    /**
+     * A panel of {@code labels} lines of text, or nothing if zero. Returns the label that changes each frame.
+     */
+    private static UILabel buildHud(int labels) {
+        if (labels == 0) {
+            return null;
+        }
+        int columns = 4;
+        float lineHeight = 16f;
+        float columnWidth = (VIEWPORT_WIDTH - 40) / (float) columns;
+        UIPanel panel = new UIPanel(20, 20, VIEWPORT_WIDTH - 40, (labels / columns + 1) * lineHeight);
+        UILabel first = null;
+        for (int i = 0; i < labels; i++) {
+            UILabel label = new UILabel(20 + (i % columns) * columnWidth, 20 + (i / columns) * lineHeight,
+                    columnWidth, lineHeight, "Inventory slot " + i + ": 10 wood");
+            label.setTextScale(0.75f);
+            panel.addChild(label);
+            if (first == null) {
+                first = label;
+            }
+        }
+        UIManager.getInstance().addElement(panel);
+        return first;
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static double mean(int[] values) {
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : (double) sum / values.length;
+    }
+
+    private static int max(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static final class Scene {
+        private final String name;
+        private final int gridSize;
+        private final float zoom;
+        private final GridRenderer.RenderMode renderMode;
+        private final int entityCount;
+        private final int hudLabels;
+        // Null for the plain coloured tiles
+        private final TextureFilter tileFilter;
+
+        private Scene(String name, int gridSize, float zoom, GridRenderer.RenderMode renderMode,
+                      int entityCount, int hudLabels) {
+            this(name, gridSize, zoom, renderMode, entityCount, hudLabels, null);
+        }
+
+        private Scene(String name, int gridSize, float zoom, GridRenderer.RenderMode renderMode,
+                      int entityCount, int hudLabels, TextureFilter tileFilter) {
+            this.name = name;
+            this.gridSize = gridSize;
+            this.zoom = zoom;
+            this.renderMode = renderMode;
+            this.entityCount = entityCount;
+            this.hudLabels = hudLabels;
+            this.tileFilter = tileFilter;
+        }
+    }
+
+    private static final class Result {
+        private final Scene scene;
+        private final double[] frameMillis;
+        private final int[] drawCalls;
+        private final int[] stateChanges;
+        private final int[] textureBinds;
+        private final int[] visibleEntities;
+
+        private Result(Scene scene, int frames) {
+            this.scene = scene;
+            this.frameMillis = new double[frames];
+            this.drawCalls = new int[frames];
+            this.stateChanges = new int[frames];
+            this.textureBinds = new int[frames];
+            this.visibleEntities = new int[frames];
+        }
+
+        private void record(int frame, long elapsedNanos, int visible) {
+            frameMillis[frame] = elapsedNanos / 1_000_000.0;
+            drawCalls[frame] = RenderStats.getLastFrameDrawCalls();
+            stateChanges[frame] = RenderStats.getLastFrameStateChanges();
+            textureBinds[frame] = RenderStats.getLastFrameTextureBinds();
+            visibleEntities[frame] = visible;
+        }
+
+        private void finish() {
+            Arrays.sort(frameMillis);
+        }
+
+        private void appendJson(StringBuilder json) {
+            double sum = 0;
+            for (double millis : frameMillis) {
+                sum += millis;
+            }
+            json.append("    {\n");
+            json.append("      \"name\": ").append(quote(scene.name)).append(",\n");
+            json.append(String.format(Locale.ROOT,
+                    "      \"gridSize\": %d, \"zoom\": %.2f, \"renderMode\": \"%s\", \"entities\": %d, \"hudLabels\": %d,%n",
+                    scene.gridSize, scene.zoom, scene.renderMode, scene.entityCount, scene.hudLabels));
+            json.append("      \"tileFilter\": ").append(scene.tileFilter == null ? "null" : quote(scene.tileFilter.name()))
+                    .append(",\n");
+            json.append(String.format(Locale.ROOT,
+                    "      \"frameTimeMs\": {\"mean\": %.4f, \"p50\": %.4f, \"p90\": %.4f, \"p99\": %.4f, \"max\": %.4f},%n",
+                    sum / frameMillis.length, percentile(frameMillis, 0.50), percentile(frameMillis, 0.90),
+                    percentile(frameMillis, 0.99), frameMillis[frameMillis.length - 1]));
+            appendCounter(json, "drawCalls", drawCalls, ",");
+            appendCounter(json, "stateChanges", stateChanges, ",");
+            appendCounter(json, "textureBinds", textureBinds, ",");
+            // Against "entities" above, shows how much culling saved
+            appendCounter(json, "visibleEntities", visibleEntities, "");
+            json.append("    }");
+        }
+
+        private static void appendCounter(StringBuilder json, String name, int[] values, String separator) {
+            json.append(String.format(Locale.ROOT, "      \"%s\": {\"mean\": %.2f, \"max\": %d}%s%n",
+                    name, mean(values), max(values), separator));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads images in two stages: decoding runs on a pool of worker threads, and the decoded pixels are
+ * handed to the GL thread, which uploads a few per frame in {@link #processUploads()}. Entering a state
+ * therefore no longer waits for disk and PNG decoding, and a burst of loads is spread over frames.
+ * <p>
+ * Decoded images wait in a bounded queue; once it is full the workers block, so pixels that have
+ * been decoded but not yet uploaded never take more than a few images' worth of memory.
+ */
+public final class AsyncTextureLoader {
+
+    private static final int QUEUE_CAPACITY = 8;
+    private static final int DEFAULT_UPLOADS_PER_FRAME = 4;
+    // How long cleanup waits for decodes in progress to finish and free their pixels
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Receives one finished load on the GL thread.
+     */
+    public interface Upload {
+        /**
+         * The callback owns {@code image} and must free it once the pixels have been copied.
+         */
+        void uploaded(ImageData image);
+
+        void failed(String path, RuntimeException e);
+    }
+
+    private static AsyncTextureLoader instance;
+
+    private final BlockingQueue<Decoded> decoded = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // Submitted but not yet handed to their callback
+    private final AtomicInteger pending = new AtomicInteger();
+    private ExecutorService decoders;
+    private int uploadsPerFrame = DEFAULT_UPLOADS_PER_FRAME;
+
+    // 1x1 grey shown by handles until their texture arrives, created on first use
+    private Texture placeholder;
+
+    private AsyncTextureLoader() {
+        // Private constructor for singleton
+    }
+
+    public static AsyncTextureLoader getInstance() {
+        if (instance == null) {
+            instance = new AsyncTextureLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Decode {@code path} in the background and pass the result to {@code upload} on the GL thread.
+     */
+    public void submit(String path, Upload upload) {
+        if (decoders == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            AtomicInteger threadNumber = new AtomicInteger();
+            decoders = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "texture-decoder-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pending.incrementAndGet();
+        ExecutorService pool = decoders;
+        pool.execute(() -> decode(pool, path, upload));
+    }
+
+    /**
+     * Load a standalone texture in the background. The handle shows a placeholder until the upload completes.
+     */
+    public TextureHandle loadTexture(String path) {
+        return loadTexture(path, TextureFilter.NEAREST);
+    }
+
+    public TextureHandle loadTexture(String path, TextureFilter filter) {
+        if (placeholder == null) {
+            placeholder = TextureLoader.createSolidTexture(0.5f, 0.5f, 0.5f, 1.0f);
+        }
+        TextureHandle handle = new TextureHandle(path, placeholder, filter);
+        submit(path, handle);
+        return handle;
+    }
+
+    /**
+     * Hand up to the per-frame limit of decoded images to their callbacks. Called by GameLoop once a frame.
+     *
+     * @return how many loads finished
+     */
+    public int processUploads() {
+        int processed = 0;
+        Decoded next;
+        while (processed < uploadsPerFrame && (next = decoded.poll()) != null) {
+            deliver(next);
+            processed++;
+        }
+        return processed;
+    }
+
+    /**
+     * Block until every submitted load has been handed to its callback, e.g. for a loading screen
+     * or a benchmark that needs everything in place.
+     */
+    public void finishAll() {
+        while (pending.get() > 0) {
+            try {
+                deliver(decoded.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Loads submitted but not yet uploaded.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public int getUploadsPerFrame() {
+        return uploadsPerFrame;
+    }
+
+    /**
+     * Most loads {@link #processUploads()} completes per frame; more finish sooner but make those frames longer.
+     */
+    public void setUploadsPerFrame(int uploadsPerFrame) {
+        if (uploadsPerFrame < 1) {
+            throw new IllegalArgumentException("Need at least one upload per frame: " + uploadsPerFrame);
+        }
+        this.uploadsPerFrame = uploadsPerFrame;
+    }
+
+    public void cleanup() {
+        if (decoders != null) {
+            // Interrupts workers blocked on the full queue; they free what they hold. A worker still
+            // decoding sees the pool shut down when it finishes and frees its image instead of queueing it
+            decoders.shutdownNow();
+            try {
+                decoders.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            decoders = null;
+        }
+        Decoded next;
+        while ((next = decoded.poll()) != null) {
+            if (next.image != null) {
+                next.image.free();
+            }
+        }
+        pending.set(0);
+        if (placeholder != null) {
+            placeholder.cleanup();
+            placeholder = null;
+        }
+    }
+
+    /**
+     * Runs on a decoder thread.
+     */
+    private void decode(ExecutorService pool, String path, Upload upload) {
+        Decoded result;
+        try {
+            result = new Decoded(path, upload, TextureLoader.loadImage(path), null);
+        } catch (RuntimeException e) {
+            result = new Decoded(path, upload, null, e);
+        }
+        if (pool.isShutdown()) {
+            // Nothing will drain the queue any more
+            if (result.image != null) {
+                result.image.free();
+            }
+            return;
+        }
+        try {
+            decoded.put(result);
+        } catch (InterruptedException e) {
+            // Shut down while waiting for room
+            if (result.image != null) {
+                result.image.free();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(Decoded result) {
+        pending.decrementAndGet();
+        if (result.image != null) {
+            result.upload.uploaded(result.image);
+        } else {
+            result.upload.failed(result.path, result.failure);
+        }
+    }
+
+    private static final class Decoded {
+        private final String path;
+        private final Upload upload;
+        private final ImageData image;
+        private final RuntimeException failure;
+
+        private Decoded(String path, Upload upload, ImageData image, RuntimeException failure) {
+            this.path = path;
+            this.upload = upload;
+            this.image = image;
+            this.failure = failure;
+        }
+    }
+}
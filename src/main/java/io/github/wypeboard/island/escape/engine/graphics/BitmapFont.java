@@ -1,112 +1,84 @@
 package io.github.wypeboard.island.escape.engine.graphics;
 
 import io.github.wypeboard.island.escape.utils.Logger;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.stb.STBTTBakedChar;
-import org.lwjgl.stb.STBTruetype;
-import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
 
 /**
- * Loads a TTF font file and bakes it into an OpenGL texture atlas using STB TrueType.
- * One instance per font size. TextRenderer owns these.
+ * Loads a TTF font file and renders it through a {@link GlyphCache}: glyphs are rasterised with
+ * STB TrueType the first time they are drawn, so any character the font covers can be shown.
+ * Printable ASCII is rasterised up front, or read back from a {@link FontBakeCache} file written by
+ * an earlier launch. TextRenderer owns these.
+ * <p>
+ * In {@link Mode#BITMAP} mode glyphs are plain coverage bitmaps and look right only near the baked
+ * size, so each size needs its own instance. In {@link Mode#SDF} mode they are signed distance fields
+ * that stay sharp at any scale when drawn with the SDF text shader.
  */
 public final class BitmapFont {
 
-    // Atlas dimensions — 512x512 is plenty for ASCII at most sizes
-    private static final int ATLAS_WIDTH  = 512;
-    private static final int ATLAS_HEIGHT = 512;
+    public enum Mode {
+        BITMAP,
+        SDF
+    }
 
-    // ASCII range we care about: space (32) through tilde (126)
-    private static final int FIRST_CHAR = 32;
-    private static final int CHAR_COUNT = 96;
+    // Printable ASCII — nearly every string uses these, so they are ready before the first frame
+    private static final int PREWARM_FIRST = 32;
+    private static final int PREWARM_LAST = 126;
 
-    private final STBTTBakedChar.Buffer charData;
-    private final int textureId;
+    private final GlyphCache glyphs;
     private final float fontSize;
+    private final Mode mode;
 
     /**
      * @param fontPath  path to .ttf file, e.g. "assets/fonts/font.ttf"
      * @param fontSize  point size to bake at, e.g. 16f
      */
     public BitmapFont(String fontPath, float fontSize) {
-        this.fontSize = fontSize;
-        this.charData = STBTTBakedChar.malloc(CHAR_COUNT);
-
-        // Load TTF file into a ByteBuffer
-        ByteBuffer ttfBuffer = loadFile(fontPath);
-
-        // Bake font into a greyscale bitmap
-        ByteBuffer bitmap = MemoryUtil.memAlloc(ATLAS_WIDTH * ATLAS_HEIGHT);
-        STBTruetype.stbtt_BakeFontBitmap(ttfBuffer, fontSize, bitmap, ATLAS_WIDTH, ATLAS_HEIGHT, FIRST_CHAR, charData);
-
-        // Upload bitmap to OpenGL as an alpha-only texture
-        textureId = GL11.glGenTextures();
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, ATLAS_WIDTH, ATLAS_HEIGHT,
-                0, GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, bitmap);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-
-        MemoryUtil.memFree(bitmap);
-
-        Logger.debug(BitmapFont.class, "BitmapFont: baked '" + fontPath + "' at " + fontSize + "px");
+        this(fontPath, fontSize, Mode.BITMAP);
     }
 
     /**
-     * Render a single character quad at (x, y) in screen space.
-     * Advances x by the character width and returns the new x position.
-     * Must be called between glBegin(GL_QUADS) / glEnd().
+     * @param fontPath  path to .ttf file, e.g. "assets/fonts/font.ttf"
+     * @param fontSize  size that a scale of 1 corresponds to; in SDF mode only layout uses it
+     * @param mode      coverage bitmaps or signed distance fields
      */
-    public float renderChar(char c, float x, float y) {
-        int idx = c - FIRST_CHAR;
-        if (idx < 0 || idx >= CHAR_COUNT) {
-            return x; // unsupported character — skip
-        }
-
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            FloatBuffer xBuf = stack.floats(x);
-            FloatBuffer yBuf = stack.floats(y);
-
-            STBTTBakedChar bakedChar = charData.get(idx);
+    public BitmapFont(String fontPath, float fontSize, Mode mode) {
+        this.fontSize = fontSize;
+        this.mode = mode;
 
-            float x0 = x + bakedChar.xoff();
-            float y0 = y + bakedChar.yoff();
-            float x1 = x0 + (bakedChar.x1() - bakedChar.x0());
-            float y1 = y0 + (bakedChar.y1() - bakedChar.y0());
+        // The cache keeps the TTF data for on-demand rasterisation and frees it on cleanup
+        this.glyphs = new GlyphCache(loadFontFile(fontPath), fontSize, mode);
+        // Mapped from an earlier launch's bake when one matches this font, size and mode
+        FontBakeCache.prewarm(glyphs, fontPath, fontSize, mode, PREWARM_FIRST, PREWARM_LAST);
 
-            float u0 = (float) bakedChar.x0() / ATLAS_WIDTH;
-            float v0 = (float) bakedChar.y0() / ATLAS_HEIGHT;
-            float u1 = (float) bakedChar.x1() / ATLAS_WIDTH;
-            float v1 = (float) bakedChar.y1() / ATLAS_HEIGHT;
+        Logger.debug(BitmapFont.class, "BitmapFont: loaded '" + fontPath + "' at " + fontSize + "px (" + mode + ")");
+    }
 
-            GL11.glTexCoord2f(u0, v0); GL11.glVertex2f(x0, y0);
-            GL11.glTexCoord2f(u1, v0); GL11.glVertex2f(x1, y0);
-            GL11.glTexCoord2f(u1, v1); GL11.glVertex2f(x1, y1);
-            GL11.glTexCoord2f(u0, v1); GL11.glVertex2f(x0, y1);
+    /**
+     * Refill the per-frame glyph rasterisation budget.
+     */
+    public void beginFrame() {
+        glyphs.beginFrame();
+    }
 
-            return x + bakedChar.xadvance();
-        }
+    /**
+     * Lay out a whole string as glyph quads with the baseline origin at (0, 0) and positions
+     * multiplied by {@code scale}. Glyphs arrive grouped by atlas page, see {@link #getPage(int)}.
+     *
+     * @return false if some glyphs still have to be rasterised on a later frame
+     */
+    boolean layout(String text, float scale, GlyphCache.PageSink sink) {
+        return glyphs.layout(text, scale, sink);
     }
 
     /**
      * Returns the total pixel width of a string at this font's size.
      */
     public float measureWidth(String text) {
-        float width = 0;
-        for (int i = 0; i < text.length(); i++) {
-            int idx = text.charAt(i) - FIRST_CHAR;
-            if (idx >= 0 && idx < CHAR_COUNT) {
-                width += charData.get(idx).xadvance();
-            }
-        }
-        return width;
+        return glyphs.measure(text);
     }
 
     /**
@@ -117,16 +89,49 @@ public final class BitmapFont {
         return fontSize;
     }
 
-    public int getTextureId() {
-        return textureId;
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Texture getPage(int page) {
+        return glyphs.getPage(page);
+    }
+
+    /**
+     * UV of an always-opaque texel on page 0, for drawing plain quads in the same batch as text.
+     */
+    public float getSolidU() {
+        return glyphs.getSolidU();
+    }
+
+    public float getSolidV() {
+        return glyphs.getSolidV();
+    }
+
+    /**
+     * Changes whenever a cached glyph is evicted; text laid out before that must be laid out again.
+     */
+    public int getGlyphGeneration() {
+        return glyphs.getGeneration();
+    }
+
+    public int getCachedGlyphCount() {
+        return glyphs.getCachedGlyphCount();
+    }
+
+    public int getGlyphEvictionCount() {
+        return glyphs.getEvictionCount();
     }
 
     public void cleanup() {
-        GL11.glDeleteTextures(textureId);
-        charData.free();
+        glyphs.cleanup();
     }
 
-    private static ByteBuffer loadFile(String path) {
+    /**
+     * Read a font from the classpath, falling back to the filesystem. The returned buffer is
+     * allocated with MemoryUtil and must be freed by the caller.
+     */
+    public static ByteBuffer loadFontFile(String path) {
         try (InputStream is = BitmapFont.class.getClassLoader().getResourceAsStream(path)) {
             if (is == null) {
                 // Try as a filesystem path
@@ -0,0 +1,34 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL14;
+
+/**
+ * How a draw is combined with what is already on screen.
+ */
+public enum BlendMode {
+    OPAQUE,         // blending off
+    ALPHA,          // straight alpha: src * a + dst * (1 - a)
+    PREMULTIPLIED,  // colour already multiplied by alpha: src + dst * (1 - a)
+    OFFSCREEN;      // straight alpha into a transparent render target, leaving premultiplied colour in it
+
+    void apply() {
+        switch (this) {
+            case OPAQUE -> GL11.glDisable(GL11.GL_BLEND);
+            case ALPHA -> {
+                GL11.glEnable(GL11.GL_BLEND);
+                GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+            }
+            case PREMULTIPLIED -> {
+                GL11.glEnable(GL11.GL_BLEND);
+                GL11.glBlendFunc(GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+            }
+            case OFFSCREEN -> {
+                // Colour blends like ALPHA; target alpha accumulates coverage instead of being squared
+                GL11.glEnable(GL11.GL_BLEND);
+                GL14.glBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA,
+                        GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import io.github.wypeboard.island.escape.utils.Logger;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persists the glyphs a {@link GlyphCache} rasterises up front, so later launches map one file and
+ * upload its pages instead of rasterising printable ASCII again (in SDF mode the slowest part of
+ * font setup). One file per font, size and mode; the header also holds the font file's checksum and
+ * length and the cell layout, and anything that no longer matches is rasterised and rewritten.
+ * <p>
+ * File layout: magic, version, font checksum, font length, font size, mode, cell size, first and
+ * last prewarmed codepoint, then {@link GlyphCache#writeWarmState} output, all big-endian.
+ */
+final class FontBakeCache {
+
+    private static final Path DIRECTORY = Paths.get("cache/fonts");
+    private static final int MAGIC = 0x49454643; // "IEFC"
+    private static final int VERSION = 1;
+    // Magic, version, checksum, font length, size, mode, cell size, first, last
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + 4 + 4 + 4;
+
+    private FontBakeCache() {
+        // Utility class
+    }
+
+    /**
+     * Fill {@code glyphs} with {@code first..last}, from the cache file if it is current, otherwise by
+     * rasterising them and writing the file for next time.
+     */
+    static void prewarm(GlyphCache glyphs, String fontPath, float fontSize, BitmapFont.Mode mode, int first, int last) {
+        Path file = DIRECTORY.resolve(Paths.get(fontPath).getFileName() + "-" + fontSize + "-"
+                + mode.name().toLowerCase() + ".glyphs");
+        ByteBuffer header = header(glyphs, fontSize, mode, first, last);
+
+        if (restore(glyphs, file, header)) {
+            // Only marks what the font lacks in the range; everything else is cached now
+            glyphs.prewarm(first, last);
+        } else {
+            glyphs.prewarm(first, last);
+            store(glyphs, file, header);
+        }
+    }
+
+    private static ByteBuffer header(GlyphCache glyphs, float fontSize, BitmapFont.Mode mode, int first, int last) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION)
+                .putLong(glyphs.getFontChecksum()).putInt(glyphs.getFontFileSize())
+                .putFloat(fontSize).putInt(mode.ordinal()).putInt(glyphs.getCellSize())
+                .putInt(first).putInt(last)
+                .flip();
+        return header;
+    }
+
+    private static boolean restore(GlyphCache glyphs, Path file, ByteBuffer header) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < HEADER_BYTES || !mapped.slice().limit(HEADER_BYTES).equals(header)) {
+                Logger.debug(FontBakeCache.class, "Stale font cache " + file.getFileName() + ", rebuilding");
+                return false;
+            }
+            mapped.order(ByteOrder.BIG_ENDIAN).position(HEADER_BYTES);
+            if (!glyphs.readWarmState(mapped)) {
+                Logger.error(FontBakeCache.class, "Font cache " + file.getFileName()
+                        + " matches its header but not its glyph data, rebuilding");
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            Logger.error(FontBakeCache.class, "Failed to read font cache " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void store(GlyphCache glyphs, Path file, ByteBuffer header) {
+        // memAlloc buffers come in native order, mapped ones are read big-endian
+        ByteBuffer contents = MemoryUtil.memAlloc(HEADER_BYTES + glyphs.getWarmStateSize()).order(ByteOrder.BIG_ENDIAN);
+        Path temporary = null;
+        try {
+            contents.put(header.duplicate());
+            glyphs.writeWarmState(contents);
+            contents.flip();
+
+            Files.createDirectories(DIRECTORY);
+            temporary = Files.createTempFile(DIRECTORY, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (contents.hasRemaining()) {
+                    channel.write(contents);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Next launch rasterises again
+            Logger.error(FontBakeCache.class, "Failed to write font cache " + file + ": " + e.getMessage());
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // Nothing more to do
+                }
+            }
+        } finally {
+            MemoryUtil.memFree(contents);
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTruetype;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Rasterises glyphs with STB TrueType the first time they are used and keeps them in alpha-only
+ * atlas pages. Each page is split into equal cells sized for the font's largest glyph, so any freed
+ * cell can take any glyph. When every page is full the least recently used glyph is evicted.
+ * <p>
+ * Rasterising is capped per frame; glyphs over the budget are left out of the layout and reported as
+ * deferred, so the caller can lay the text out again on a later frame.
+ * <p>
+ * In {@link BitmapFont.Mode#SDF} mode cells hold signed distance fields rasterised at
+ * {@link #SDF_RASTER_SIZE}; metrics are still reported at the requested font size.
+ * <p>
+ * Slot 0 is a permanently opaque cell, so untextured quads can be drawn from the glyph page in the
+ * same batch as text. A full texel reads as opaque in both coverage and distance-field mode.
+ */
+final class GlyphCache {
+
+    /**
+     * Receives one positioned glyph quad together with the atlas page it lives on.
+     */
+    @FunctionalInterface
+    interface PageSink {
+        void glyph(int page, float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1);
+    }
+
+    private static final int PAGE_SIZE = 512;
+    private static final int MAX_PAGES = 4;
+    // Empty texels around each glyph so linear filtering never samples a neighbouring cell
+    private static final int PADDING = 1;
+    // Enough for a full line of new dialogue without noticeably stretching the frame
+    private static final int MAX_RASTERIZED_PER_FRAME = 48;
+
+    // Distance fields are rasterised at this pixel height whatever size the font is drawn at
+    static final float SDF_RASTER_SIZE = 32f;
+    // Texels of distance field around each outline, and the value STB writes exactly on the edge
+    private static final int SDF_SPREAD = 4;
+    private static final int SDF_ON_EDGE = 128;
+
+    private static final int NOT_CACHED = -1;
+    // The font has no glyph for this codepoint (or it is a control character) — skipped, never retried
+    private static final int MISSING = -2;
+    private static final int NONE = -1;
+    private static final int SOLID_SLOT = 0;
+
+    private final ByteBuffer ttf;
+    private final STBTTFontinfo fontInfo;
+    private final boolean signedDistanceField;
+    // STB scale for the raster size, and the factor from raster pixels to font-size pixels
+    private final float rasterScale;
+    private final float metricScale;
+
+    private final int cellSize;
+    private final int cellsPerRow;
+    private final int cellsPerPage;
+    private final List<Texture> pages = new ArrayList<>();
+
+    private final GlyphTable table;
+    private final int[] slotCodepoint;
+    private int slotsInUse;
+
+    // Codepoint -> slot. Direct-indexed for the Basic Multilingual Plane, a map for the rare rest (e.g. emoji)
+    private final int[] bmpSlots = new int[0x10000];
+    private final Map<Integer, Integer> supplementarySlots = new HashMap<>();
+
+    // Intrusive LRU list over slots: head is the most recently used, tail the next to evict
+    private final int[] lruPrev;
+    private final int[] lruNext;
+    private int lruHead = NONE;
+    private int lruTail = NONE;
+
+    // Slots touched by the layout in progress carry its stamp and are never evicted by it
+    private final int[] slotStamp;
+    private int layoutStamp;
+
+    // Per-layout scratch: resolved slot and pen position of each glyph
+    private int[] layoutSlots = new int[64];
+    private float[] layoutPenX = new float[64];
+
+    private final ByteBuffer cellBitmap;
+    private final int[] metricA = new int[1];
+    private final int[] metricB = new int[1];
+    private final int[] metricC = new int[1];
+    private final int[] metricD = new int[1];
+
+    private int rasterBudget = MAX_RASTERIZED_PER_FRAME;
+    private int generation;
+    private int evictions;
+
+    // Forwards GlyphTable output to the current PageSink without allocating a lambda per layout
+    private PageSink target;
+    private int targetPage;
+    private final GlyphTable.GlyphSink forward = (x0, y0, x1, y1, u0, v0, u1, v1) ->
+            target.glyph(targetPage, x0, y0, x1, y1, u0, v0, u1, v1);
+
+    /**
+     * @param ttf      font file contents; kept alive (and freed in {@link #cleanup()}) because STB reads it lazily
+     * @param fontSize pixel height that layout and metrics are expressed in
+     * @param mode     plain coverage bitmaps at fontSize, or distance fields at {@link #SDF_RASTER_SIZE}
+     */
+    GlyphCache(ByteBuffer ttf, float fontSize, BitmapFont.Mode mode) {
+        this.ttf = ttf;
+        this.fontInfo = STBTTFontinfo.malloc();
+        if (!STBTruetype.stbtt_InitFont(fontInfo, ttf)) {
+            fontInfo.free();
+            throw new RuntimeException("Failed to parse font data");
+        }
+        this.signedDistanceField = mode == BitmapFont.Mode.SDF;
+        float rasterSize = signedDistanceField ? SDF_RASTER_SIZE : fontSize;
+        this.rasterScale = STBTruetype.stbtt_ScaleForPixelHeight(fontInfo, rasterSize);
+        this.metricScale = fontSize / rasterSize;
+
+        STBTruetype.stbtt_GetFontBoundingBox(fontInfo, metricA, metricB, metricC, metricD);
+        int maxGlyphWidth = (int) Math.ceil((metricC[0] - metricA[0]) * rasterScale);
+        int maxGlyphHeight = (int) Math.ceil((metricD[0] - metricB[0]) * rasterScale);
+        int spread = signedDistanceField ? SDF_SPREAD * 2 : 0;
+        this.cellSize = Math.min(PAGE_SIZE, Math.max(maxGlyphWidth, maxGlyphHeight) + spread + PADDING * 2);
+        this.cellsPerRow = PAGE_SIZE / cellSize;
+        this.cellsPerPage = cellsPerRow * cellsPerRow;
+
+        int capacity = cellsPerPage * MAX_PAGES;
+        this.table = new GlyphTable(capacity);
+        this.slotCodepoint = new int[capacity];
+        this.lruPrev = new int[capacity];
+        this.lruNext = new int[capacity];
+        this.slotStamp = new int[capacity];
+        this.cellBitmap = MemoryUtil.memAlloc(cellSize * cellSize);
+        Arrays.fill(bmpSlots, NOT_CACHED);
+        Arrays.fill(lruPrev, NONE);
+        Arrays.fill(lruNext, NONE);
+        reserveSolidCell();
+    }
+
+    /**
+     * Rasterise a range up front regardless of the per-frame budget, e.g. printable ASCII at startup.
+     */
+    void prewarm(int firstCodepoint, int lastCodepoint) {
+        layoutStamp++;
+        for (int codepoint = firstCodepoint; codepoint <= lastCodepoint; codepoint++) {
+            if (lookup(codepoint) == NOT_CACHED) {
+                rasterize(codepoint);
+            }
+        }
+    }
+
+    /**
+     * Bytes {@link #writeWarmState} needs: the slots in use and the pages holding them.
+     */
+    int getWarmStateSize() {
+        return 2 * Integer.BYTES + (slotsInUse - 1) * (Integer.BYTES + GlyphTable.SLOT_BYTES)
+                + pages.size() * PAGE_SIZE * PAGE_SIZE;
+    }
+
+    /**
+     * Append every cached glyph and its page pixels, read back from GL, so a later launch can skip
+     * rasterising them. Meant to be called right after {@link #prewarm}, before anything is evicted.
+     */
+    void writeWarmState(ByteBuffer target) {
+        target.putInt(pages.size()).putInt(slotsInUse);
+        for (int slot = SOLID_SLOT + 1; slot < slotsInUse; slot++) {
+            target.putInt(slotCodepoint[slot]);
+            table.write(slot, target);
+        }
+        GL11.glPixelStorei(GL11.GL_PACK_ALIGNMENT, 1);
+        for (Texture page : pages) {
+            ByteBuffer pixels = target.slice().limit(PAGE_SIZE * PAGE_SIZE);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, page.getTextureId());
+            GL11.glGetTexImage(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, pixels);
+            target.position(target.position() + PAGE_SIZE * PAGE_SIZE);
+        }
+        GL11.glPixelStorei(GL11.GL_PACK_ALIGNMENT, 4);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+    }
+
+    /**
+     * Restore what {@link #writeWarmState} wrote, uploading the pages straight from {@code source}.
+     * Only a fresh cache can be restored into.
+     *
+     * @return false, leaving the cache untouched, if the state doesn't fit this cache
+     */
+    boolean readWarmState(ByteBuffer source) {
+        if (slotsInUse != SOLID_SLOT + 1 || source.remaining() < 2 * Integer.BYTES) {
+            return false;
+        }
+        int pageCount = source.getInt();
+        int slotCount = source.getInt();
+        if (slotCount <= SOLID_SLOT || slotCount > slotCodepoint.length
+                || pageCount != (slotCount - 1) / cellsPerPage + 1
+                || source.remaining() != (long) (slotCount - 1) * (Integer.BYTES + GlyphTable.SLOT_BYTES)
+                + (long) pageCount * PAGE_SIZE * PAGE_SIZE) {
+            return false;
+        }
+
+        layoutStamp++;
+        for (int slot = SOLID_SLOT + 1; slot < slotCount; slot++) {
+            int codepoint = source.getInt();
+            table.read(slot, source);
+            slotCodepoint[slot] = codepoint;
+            store(codepoint, slot);
+            touch(slot);
+        }
+        slotsInUse = slotCount;
+        for (int page = 0; page < pageCount; page++) {
+            if (page == pages.size()) {
+                newPage();
+            }
+            uploadPage(pages.get(page), source.slice().limit(PAGE_SIZE * PAGE_SIZE));
+            source.position(source.position() + PAGE_SIZE * PAGE_SIZE);
+        }
+        return true;
+    }
+
+    /**
+     * CRC32 of the font file, identifying it in persisted warm state.
+     */
+    long getFontChecksum() {
+        CRC32 crc = new CRC32();
+        crc.update(ttf.duplicate());
+        return crc.getValue();
+    }
+
+    int getFontFileSize() {
+        return ttf.remaining();
+    }
+
+    int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Refill the rasterisation budget. Call once per frame.
+     */
+    void beginFrame() {
+        rasterBudget = MAX_RASTERIZED_PER_FRAME;
+    }
+
+    /**
+     * Lay out {@code text} with the baseline origin at (0, 0), emitting glyphs grouped by page
+     * (pages in ascending order) so the caller can draw each page as one range.
+     *
+     * @return false if glyphs were left out because this frame's rasterisation budget ran out
+     */
+    boolean layout(CharSequence text, float scale, PageSink sink) {
+        layoutStamp++;
+        boolean complete = true;
+        int glyphCount = 0;
+        float penX = 0;
+
+        for (int i = 0; i < text.length(); ) {
+            int codepoint = Character.codePointAt(text, i);
+            i += Character.charCount(codepoint);
+
+            int slot = resolve(codepoint);
+            if (slot == MISSING) {
+                continue;
+            }
+            if (slot == NOT_CACHED) {
+                // Deferred — still advance the pen so the rest of the line doesn't shift when it arrives
+                complete = false;
+                penX += fallbackAdvance(codepoint) * scale;
+                continue;
+            }
+            ensureLayoutCapacity(glyphCount + 1);
+            layoutSlots[glyphCount] = slot;
+            layoutPenX[glyphCount] = penX;
+            glyphCount++;
+            penX += table.getAdvance(slot) * scale;
+        }
+
+        target = sink;
+        for (int page = 0; page < pages.size(); page++) {
+            targetPage = page;
+            for (int g = 0; g < glyphCount; g++) {
+                if (layoutSlots[g] / cellsPerPage == page) {
+                    table.putGlyph(layoutSlots[g], layoutPenX[g], 0, scale, forward);
+                }
+            }
+        }
+        target = null;
+        return complete;
+    }
+
+    /**
+     * Unscaled advance width of {@code text}. Never rasterises — glyphs that aren't cached yet are read
+     * from the font's metrics.
+     */
+    float measure(CharSequence text) {
+        float width = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codepoint = Character.codePointAt(text, i);
+            i += Character.charCount(codepoint);
+
+            int slot = lookup(codepoint);
+            if (slot >= 0) {
+                width += table.getAdvance(slot);
+            } else if (slot == NOT_CACHED) {
+                width += fallbackAdvance(codepoint);
+            }
+        }
+        return width;
+    }
+
+    Texture getPage(int page) {
+        return pages.get(page);
+    }
+
+    int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Bumped whenever a glyph is evicted. Text laid out under an older generation may point at reused cells.
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    int getCachedGlyphCount() {
+        return slotsInUse - 1;
+    }
+
+    /**
+     * UV at the centre of the opaque cell, the top-left cell of page 0 — far enough from its edge that
+     * filtering stays inside it.
+     */
+    float getSolidU() {
+        return cellSize / 2f / PAGE_SIZE;
+    }
+
+    float getSolidV() {
+        return cellSize / 2f / PAGE_SIZE;
+    }
+
+    int getEvictionCount() {
+        return evictions;
+    }
+
+    void cleanup() {
+        for (Texture page : pages) {
+            page.cleanup();
+        }
+        pages.clear();
+        MemoryUtil.memFree(cellBitmap);
+        fontInfo.free();
+        MemoryUtil.memFree(ttf);
+    }
+
+    private int resolve(int codepoint) {
+        int slot = lookup(codepoint);
+        if (slot >= 0) {
+            touch(slot);
+            return slot;
+        }
+        if (slot == MISSING || rasterBudget <= 0) {
+            return slot;
+        }
+        rasterBudget--;
+        return rasterize(codepoint);
+    }
+
+    private int lookup(int codepoint) {
+        if (codepoint < 0x10000) {
+            return bmpSlots[codepoint];
+        }
+        return supplementarySlots.getOrDefault(codepoint, NOT_CACHED);
+    }
+
+    private void store(int codepoint, int slot) {
+        if (codepoint < 0x10000) {
+            bmpSlots[codepoint] = slot;
+        } else if (slot == NOT_CACHED) {
+            supplementarySlots.remove(codepoint);
+        } else {
+            supplementarySlots.put(codepoint, slot);
+        }
+    }
+
+    private static boolean isRenderable(int codepoint) {
+        return !Character.isISOControl(codepoint);
+    }
+
+    private int rasterize(int codepoint) {
+        if (!isRenderable(codepoint) || STBTruetype.stbtt_FindGlyphIndex(fontInfo, codepoint) == 0) {
+            store(codepoint, MISSING);
+            return MISSING;
+        }
+        int slot = allocateSlot();
+        if (slot == NONE) {
+            return NOT_CACHED; // every slot is used by the current layout
+        }
+
+        // Whole cell is re-uploaded so nothing of an evicted glyph survives around the new one
+        MemoryUtil.memSet(cellBitmap, 0);
+        if (signedDistanceField) {
+            rasterizeDistanceField(codepoint);
+        } else {
+            rasterizeCoverage(codepoint);
+        }
+        int offsetX = metricA[0];
+        int offsetY = metricB[0];
+        int width = metricC[0];
+        int height = metricD[0];
+
+        int page = slot / cellsPerPage;
+        int cell = slot % cellsPerPage;
+        int cellX = (cell % cellsPerRow) * cellSize;
+        int cellY = (cell / cellsPerRow) * cellSize;
+        upload(pages.get(page), cellX, cellY);
+
+        float glyphX = cellX + PADDING;
+        float glyphY = cellY + PADDING;
+        table.set(slot, offsetX * metricScale, offsetY * metricScale,
+                (offsetX + width) * metricScale, (offsetY + height) * metricScale,
+                glyphX / PAGE_SIZE, glyphY / PAGE_SIZE,
+                (glyphX + width) / PAGE_SIZE, (glyphY + height) / PAGE_SIZE,
+                unscaledAdvance(codepoint));
+
+        slotCodepoint[slot] = codepoint;
+        store(codepoint, slot);
+        touch(slot);
+        return slot;
+    }
+
+    /**
+     * Anti-aliased coverage bitmap into {@link #cellBitmap}. Leaves offset x/y and width/height in metricA..D.
+     */
+    private void rasterizeCoverage(int codepoint) {
+        STBTruetype.stbtt_GetCodepointBitmapBox(fontInfo, codepoint, rasterScale, rasterScale,
+                metricA, metricB, metricC, metricD);
+        int offsetX = metricA[0];
+        int offsetY = metricB[0];
+        // Clipped to the cell in the unlikely case a glyph exceeds the font's own bounding box
+        int width = Math.min(metricC[0] - offsetX, cellSize - PADDING * 2);
+        int height = Math.min(metricD[0] - offsetY, cellSize - PADDING * 2);
+
+        if (width > 0 && height > 0) {
+            cellBitmap.position(PADDING * cellSize + PADDING);
+            STBTruetype.stbtt_MakeCodepointBitmap(fontInfo, cellBitmap, width, height, cellSize,
+                    rasterScale, rasterScale, codepoint);
+            cellBitmap.position(0);
+        }
+        metricC[0] = Math.max(width, 0);
+        metricD[0] = Math.max(height, 0);
+    }
+
+    /**
+     * Signed distance field into {@link #cellBitmap}: 128 on the outline, rising inside and falling outside.
+     * Leaves offset x/y and width/height in metricA..D.
+     */
+    private void rasterizeDistanceField(int codepoint) {
+        ByteBuffer field = STBTruetype.stbtt_GetCodepointSDF(fontInfo, rasterScale, codepoint, SDF_SPREAD,
+                (byte) SDF_ON_EDGE, (float) SDF_ON_EDGE / SDF_SPREAD, metricC, metricD, metricA, metricB);
+        if (field == null) {
+            // Nothing to draw, e.g. a space
+            metricA[0] = 0;
+            metricB[0] = 0;
+            metricC[0] = 0;
+            metricD[0] = 0;
+            return;
+        }
+        int fieldWidth = metricC[0];
+        int width = Math.min(fieldWidth, cellSize - PADDING * 2);
+        int height = Math.min(metricD[0], cellSize - PADDING * 2);
+        for (int row = 0; row < height; row++) {
+            MemoryUtil.memCopy(MemoryUtil.memAddress(field) + (long) row * fieldWidth,
+                    MemoryUtil.memAddress(cellBitmap) + (long) (PADDING + row) * cellSize + PADDING, width);
+        }
+        STBTruetype.stbtt_FreeSDF(field);
+        metricC[0] = width;
+        metricD[0] = height;
+    }
+
+    /**
+     * Claims {@link #SOLID_SLOT} before any glyph. It never enters the LRU list, so it is never evicted.
+     */
+    private void reserveSolidCell() {
+        slotsInUse = SOLID_SLOT + 1;
+        slotCodepoint[SOLID_SLOT] = NOT_CACHED;
+        newPage();
+        MemoryUtil.memSet(cellBitmap, 0xFF);
+        upload(pages.get(0), 0, 0);
+    }
+
+    /**
+     * A never-used slot while pages remain, otherwise the least recently used one.
+     */
+    private int allocateSlot() {
+        if (slotsInUse < slotCodepoint.length) {
+            int slot = slotsInUse++;
+            if (slot / cellsPerPage == pages.size()) {
+                newPage();
+            }
+            return slot;
+        }
+
+        int victim = lruTail;
+        if (slotStamp[victim] == layoutStamp) {
+            return NONE;
+        }
+        unlink(victim);
+        store(slotCodepoint[victim], NOT_CACHED);
+        generation++;
+        evictions++;
+        return victim;
+    }
+
+    private void touch(int slot) {
+        slotStamp[slot] = layoutStamp;
+        if (lruHead == slot) {
+            return;
+        }
+        if (lruPrev[slot] != NONE) {
+            unlink(slot);
+        }
+        lruPrev[slot] = NONE;
+        lruNext[slot] = lruHead;
+        if (lruHead != NONE) {
+            lruPrev[lruHead] = slot;
+        }
+        lruHead = slot;
+        if (lruTail == NONE) {
+            lruTail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int prev = lruPrev[slot];
+        int next = lruNext[slot];
+        if (prev != NONE) {
+            lruNext[prev] = next;
+        } else {
+            lruHead = next;
+        }
+        if (next != NONE) {
+            lruPrev[next] = prev;
+        } else {
+            lruTail = prev;
+        }
+        lruPrev[slot] = NONE;
+        lruNext[slot] = NONE;
+    }
+
+    /**
+     * Advance of a glyph that isn't cached, or 0 if layout would skip it anyway.
+     */
+    private float fallbackAdvance(int codepoint) {
+        if (!isRenderable(codepoint) || STBTruetype.stbtt_FindGlyphIndex(fontInfo, codepoint) == 0) {
+            return 0;
+        }
+        return unscaledAdvance(codepoint);
+    }
+
+    /**
+     * Advance in pixels at the font size, straight from the font's metrics.
+     */
+    private float unscaledAdvance(int codepoint) {
+        STBTruetype.stbtt_GetCodepointHMetrics(fontInfo, codepoint, metricA, metricB);
+        return metricA[0] * rasterScale * metricScale;
+    }
+
+    private void ensureLayoutCapacity(int glyphs) {
+        if (glyphs > layoutSlots.length) {
+            int newLength = Math.max(glyphs, layoutSlots.length * 2);
+            layoutSlots = Arrays.copyOf(layoutSlots, newLength);
+            layoutPenX = Arrays.copyOf(layoutPenX, newLength);
+        }
+    }
+
+    private void newPage() {
+        int textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, PAGE_SIZE, PAGE_SIZE,
+                0, GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+        pages.add(new Texture(textureId, PAGE_SIZE, PAGE_SIZE));
+    }
+
+    private void uploadPage(Texture page, ByteBuffer pixels) {
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, page.getTextureId());
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, PAGE_SIZE, PAGE_SIZE,
+                GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, pixels);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+    }
+
+    private void upload(Texture page, int x, int y) {
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, page.getTextureId());
+        // Cell rows are cellSize bytes, not necessarily a multiple of 4
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, cellSize, cellSize,
+                GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, cellBitmap);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        // Glyphs are rasterised mid-frame, between draws that rely on the cached binding
+        RenderState.getInstance().invalidateTexture();
+    }
+}
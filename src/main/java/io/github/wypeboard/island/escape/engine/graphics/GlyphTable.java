@@ -0,0 +1,133 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.stb.STBTTBakedChar;
+import org.lwjgl.stb.STBTruetype;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Glyph metrics and atlas UVs stored in flat primitive arrays, indexed by slot.
+ * <p>
+ * Laying out a glyph is a handful of array reads: no struct accessors, no MemoryStack, no allocation.
+ * Pure CPU — nothing here touches OpenGL, which also lets it be benchmarked without a context.
+ * {@link GlyphCache} decides which glyph lives in which slot.
+ */
+public final class GlyphTable {
+
+    /**
+     * Receives one positioned glyph quad. Coordinates are already scaled and offset by the pen position.
+     */
+    @FunctionalInterface
+    public interface GlyphSink {
+        void glyph(float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1);
+    }
+
+    // Bytes per slot in write/read: nine floats
+    static final int SLOT_BYTES = 9 * Float.BYTES;
+
+    private final int capacity;
+
+    // Quad corners relative to the pen position on the baseline, in unscaled pixels
+    private final float[] offsetX0;
+    private final float[] offsetY0;
+    private final float[] offsetX1;
+    private final float[] offsetY1;
+
+    private final float[] u0;
+    private final float[] v0;
+    private final float[] u1;
+    private final float[] v1;
+
+    private final float[] advance;
+
+    public GlyphTable(int capacity) {
+        this.capacity = capacity;
+        this.offsetX0 = new float[capacity];
+        this.offsetY0 = new float[capacity];
+        this.offsetX1 = new float[capacity];
+        this.offsetY1 = new float[capacity];
+        this.u0 = new float[capacity];
+        this.v0 = new float[capacity];
+        this.u1 = new float[capacity];
+        this.v1 = new float[capacity];
+        this.advance = new float[capacity];
+    }
+
+    /**
+     * Rasterise {@code charCount} characters starting at {@code firstChar} into {@code bitmap}
+     * (an alpha-only atlas of atlasWidth x atlasHeight) in one go. Character {@code firstChar + i} ends up in slot i.
+     */
+    public static GlyphTable bake(ByteBuffer ttf, float fontSize, ByteBuffer bitmap, int atlasWidth, int atlasHeight,
+                                  int firstChar, int charCount) {
+        GlyphTable table = new GlyphTable(charCount);
+
+        try (STBTTBakedChar.Buffer charData = STBTTBakedChar.malloc(charCount)) {
+            STBTruetype.stbtt_BakeFontBitmap(ttf, fontSize, bitmap, atlasWidth, atlasHeight, firstChar, charData);
+
+            for (int i = 0; i < charCount; i++) {
+                STBTTBakedChar bakedChar = charData.get(i);
+                float width = bakedChar.x1() - bakedChar.x0();
+                float height = bakedChar.y1() - bakedChar.y0();
+
+                table.set(i, bakedChar.xoff(), bakedChar.yoff(),
+                        bakedChar.xoff() + width, bakedChar.yoff() + height,
+                        (float) bakedChar.x0() / atlasWidth, (float) bakedChar.y0() / atlasHeight,
+                        (float) bakedChar.x1() / atlasWidth, (float) bakedChar.y1() / atlasHeight,
+                        bakedChar.xadvance());
+            }
+        }
+        return table;
+    }
+
+    public void set(int slot, float offsetX0, float offsetY0, float offsetX1, float offsetY1,
+                    float u0, float v0, float u1, float v1, float advance) {
+        this.offsetX0[slot] = offsetX0;
+        this.offsetY0[slot] = offsetY0;
+        this.offsetX1[slot] = offsetX1;
+        this.offsetY1[slot] = offsetY1;
+        this.u0[slot] = u0;
+        this.v0[slot] = v0;
+        this.u1[slot] = u1;
+        this.v1[slot] = v1;
+        this.advance[slot] = advance;
+    }
+
+    /**
+     * Emit the glyph in {@code slot} with the pen at (penX, penY) and return the advanced pen X.
+     */
+    public float putGlyph(int slot, float penX, float penY, float scale, GlyphSink sink) {
+        sink.glyph(penX + offsetX0[slot] * scale, penY + offsetY0[slot] * scale,
+                penX + offsetX1[slot] * scale, penY + offsetY1[slot] * scale,
+                u0[slot], v0[slot], u1[slot], v1[slot]);
+        return penX + advance[slot] * scale;
+    }
+
+    /**
+     * Append the slot's metrics and UVs as {@link #SLOT_BYTES} bytes, for persisting a warm cache.
+     */
+    void write(int slot, ByteBuffer target) {
+        target.putFloat(offsetX0[slot]).putFloat(offsetY0[slot]).putFloat(offsetX1[slot]).putFloat(offsetY1[slot])
+                .putFloat(u0[slot]).putFloat(v0[slot]).putFloat(u1[slot]).putFloat(v1[slot])
+                .putFloat(advance[slot]);
+    }
+
+    /**
+     * Read back what {@link #write} wrote.
+     */
+    void read(int slot, ByteBuffer source) {
+        set(slot, source.getFloat(), source.getFloat(), source.getFloat(), source.getFloat(),
+                source.getFloat(), source.getFloat(), source.getFloat(), source.getFloat(),
+                source.getFloat());
+    }
+
+    /**
+     * Unscaled advance of the glyph in {@code slot}.
+     */
+    public float getAdvance(int slot) {
+        return advance[slot];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.stb.STBImage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decoded RGBA pixels that have not been uploaded to OpenGL yet.
+ * The buffer is owned by STB, or maps a {@link TextureCache} entry, so call {@link #free()} once the
+ * pixels have been copied.
+ */
+public final class ImageData {
+
+    private final String path;
+    private final int width;
+    private final int height;
+    private ByteBuffer pixels;
+    // False for a mapped cache entry, which is unmapped once the buffer is garbage collected
+    private final boolean ownedByStb;
+
+    ImageData(String path, int width, int height, ByteBuffer pixels) {
+        this(path, width, height, pixels, true);
+    }
+
+    ImageData(String path, int width, int height, ByteBuffer pixels, boolean ownedByStb) {
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+        this.ownedByStb = ownedByStb;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public ByteBuffer getPixels() {
+        return pixels;
+    }
+
+    public void free() {
+        if (pixels != null && ownedByStb) {
+            STBImage.stbi_image_free(pixels);
+        }
+        pixels = null;
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects draw commands for a frame and executes them in one pass.
+ * <p>
+ * Every command is tagged with a layer, a blend mode and a texture. Layers are drawn in ascending
+ * order; inside a layer commands are sorted by blend mode, then texture, then submission order, so
+ * each state is set once for a run of commands. Things whose relative order matters (e.g. a panel and
+ * the text on it) belong in different layers. The queue sets the tagged state through
+ * {@link RenderState} before each command, and commands set any further state the same way.
+ */
+public final class RenderQueue {
+
+    public static final int LAYER_WORLD = 0;
+    public static final int LAYER_ENTITIES = 10;
+    public static final int LAYER_HUD = 100;
+    public static final int LAYER_HUD_TEXT = 110;
+    public static final int LAYER_UI = 200;
+
+    // Sort key layout: layer (16 bits) | blend mode (4) | texture id (20) | submission index (24)
+    private static final int INDEX_BITS = 24;
+    private static final int TEXTURE_BITS = 20;
+    private static final int BLEND_BITS = 4;
+    private static final int MAX_COMMANDS = 1 << INDEX_BITS;
+
+    @FunctionalInterface
+    public interface Command {
+        void execute();
+    }
+
+    private static RenderQueue instance;
+
+    // Entries are reused between frames so submitting doesn't allocate once the queue has grown
+    private final List<Entry> entries = new ArrayList<>();
+    private long[] sortKeys = new long[256];
+    private int count;
+
+    private RenderQueue() {
+        // Private constructor for singleton
+    }
+
+    public static RenderQueue getInstance() {
+        if (instance == null) {
+            instance = new RenderQueue();
+        }
+        return instance;
+    }
+
+    /**
+     * @param layer   0..65535, lower layers are drawn first
+     * @param texture texture the command mostly draws with, or null for untextured geometry
+     */
+    public void submit(int layer, BlendMode blendMode, Texture texture, Command command) {
+        if (layer < 0 || layer > 0xFFFF) {
+            throw new IllegalArgumentException("Render layer out of range: " + layer);
+        }
+        if (count == MAX_COMMANDS) {
+            throw new IllegalStateException("Too many render commands in one frame");
+        }
+        if (count == entries.size()) {
+            entries.add(new Entry());
+        }
+        if (count == sortKeys.length) {
+            sortKeys = Arrays.copyOf(sortKeys, count * 2);
+        }
+
+        Entry entry = entries.get(count);
+        entry.blendMode = blendMode;
+        entry.texture = texture;
+        entry.command = command;
+
+        long textureId = texture == null ? 0 : texture.getTextureId() & ((1 << TEXTURE_BITS) - 1);
+        sortKeys[count] = ((long) layer << (BLEND_BITS + TEXTURE_BITS + INDEX_BITS))
+                | ((long) blendMode.ordinal() << (TEXTURE_BITS + INDEX_BITS))
+                | (textureId << INDEX_BITS)
+                | count;
+        count++;
+    }
+
+    /**
+     * Sort and run everything submitted since the last call, then empty the queue.
+     */
+    public void execute() {
+        Arrays.sort(sortKeys, 0, count);
+
+        RenderState state = RenderState.getInstance();
+        for (int i = 0; i < count; i++) {
+            Entry entry = entries.get((int) (sortKeys[i] & (MAX_COMMANDS - 1)));
+            state.setBlendMode(entry.blendMode);
+            state.setTexture(entry.texture);
+            entry.command.execute();
+            RenderStats.recordCommand();
+
+            // Don't keep the frame's lambdas (and what they captured) alive until the next frame
+            entry.command = null;
+            entry.texture = null;
+        }
+        count = 0;
+    }
+
+    private static final class Entry {
+        private BlendMode blendMode;
+        private Texture texture;
+        private Command command;
+    }
+}
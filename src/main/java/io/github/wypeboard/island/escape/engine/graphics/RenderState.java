@@ -0,0 +1,82 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Shadow copy of the texture and blend state, so redundant glEnable/glBindTexture/glBlendFunc calls
+ * are skipped. Renderers set the state they need through here and leave it as it is afterwards
+ * instead of switching it back off; the next draw changes only what it actually needs.
+ * <p>
+ * Code that binds textures behind its back (e.g. texture uploads) must call {@link #invalidateTexture()}.
+ */
+public final class RenderState {
+
+    private static RenderState instance;
+
+    private BlendMode blendMode;
+    private boolean textureEnabled;
+    private int boundTextureId;
+
+    private RenderState() {
+        // Private constructor for singleton
+    }
+
+    public static RenderState getInstance() {
+        if (instance == null) {
+            instance = new RenderState();
+        }
+        return instance;
+    }
+
+    /**
+     * Put GL into the known default state — blending off, texturing off. Called at the start of each frame.
+     */
+    public void reset() {
+        BlendMode.OPAQUE.apply();
+        blendMode = BlendMode.OPAQUE;
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        boundTextureId = 0;
+        textureEnabled = false;
+    }
+
+    public void setBlendMode(BlendMode mode) {
+        if (mode == blendMode) {
+            return;
+        }
+        mode.apply();
+        blendMode = mode;
+        RenderStats.recordStateChange();
+    }
+
+    /**
+     * Bind {@code texture} with texturing enabled, or disable texturing when it is null.
+     */
+    public void setTexture(Texture texture) {
+        if (texture == null) {
+            if (textureEnabled) {
+                GL11.glDisable(GL11.GL_TEXTURE_2D);
+                textureEnabled = false;
+                RenderStats.recordStateChange();
+            }
+            return;
+        }
+        if (!textureEnabled) {
+            GL11.glEnable(GL11.GL_TEXTURE_2D);
+            textureEnabled = true;
+            RenderStats.recordStateChange();
+        }
+        if (texture.getTextureId() != boundTextureId) {
+            texture.bind();
+            boundTextureId = texture.getTextureId();
+            RenderStats.recordStateChange();
+        }
+    }
+
+    /**
+     * The bound texture is no longer known, e.g. after an atlas upload bound and unbound its page.
+     */
+    public void invalidateTexture() {
+        boundTextureId = -1;
+    }
+}
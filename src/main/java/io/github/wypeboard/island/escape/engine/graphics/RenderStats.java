@@ -0,0 +1,86 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+/**
+ * Per-frame render counters. GameLoop calls {@link #beginFrame()} before rendering;
+ * the "last frame" getters then report the previous, complete frame.
+ */
+public final class RenderStats {
+
+    private static int textureBinds;
+    private static int lastFrameTextureBinds;
+
+    private static int batchFlushes;
+    private static int lastFrameBatchFlushes;
+
+    private static int drawCalls;
+    private static int lastFrameDrawCalls;
+
+    private static int stateChanges;
+    private static int lastFrameStateChanges;
+
+    private static int commands;
+    private static int lastFrameCommands;
+
+    private RenderStats() {
+        // Utility class
+    }
+
+    public static void beginFrame() {
+        lastFrameTextureBinds = textureBinds;
+        textureBinds = 0;
+        lastFrameBatchFlushes = batchFlushes;
+        batchFlushes = 0;
+        lastFrameDrawCalls = drawCalls;
+        drawCalls = 0;
+        lastFrameStateChanges = stateChanges;
+        stateChanges = 0;
+        lastFrameCommands = commands;
+        commands = 0;
+    }
+
+    public static void recordTextureBind() {
+        textureBinds++;
+    }
+
+    public static void recordBatchFlush() {
+        batchFlushes++;
+    }
+
+    /**
+     * One glDrawArrays issued through a {@link VertexBuffer}.
+     */
+    public static void recordDrawCall() {
+        drawCalls++;
+    }
+
+    /**
+     * A blend, texture-enable or texture-bind change that {@link RenderState} actually sent to GL.
+     */
+    public static void recordStateChange() {
+        stateChanges++;
+    }
+
+    public static void recordCommand() {
+        commands++;
+    }
+
+    public static int getLastFrameTextureBinds() {
+        return lastFrameTextureBinds;
+    }
+
+    public static int getLastFrameBatchFlushes() {
+        return lastFrameBatchFlushes;
+    }
+
+    public static int getLastFrameDrawCalls() {
+        return lastFrameDrawCalls;
+    }
+
+    public static int getLastFrameStateChanges() {
+        return lastFrameStateChanges;
+    }
+
+    public static int getLastFrameCommands() {
+        return lastFrameCommands;
+    }
+}
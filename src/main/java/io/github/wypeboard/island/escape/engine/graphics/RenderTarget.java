@@ -0,0 +1,102 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An offscreen framebuffer with one RGBA colour texture. Between {@link #begin(float, float)} and
+ * {@link #end()} everything draws into the texture through the usual y-down glOrtho projection,
+ * with the given point as the target's top-left corner.
+ * <p>
+ * The texture is stored bottom-up like any framebuffer, so its top edge is at v = 1.
+ */
+public final class RenderTarget {
+
+    private final int framebufferId;
+    private final Texture texture;
+    private int previousFramebuffer;
+
+    public static boolean isSupported() {
+        return GL.getCapabilities().OpenGL30;
+    }
+
+    public RenderTarget(int width, int height) {
+        int textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        // Drawn back 1:1 in pixels, so nearest keeps it identical to drawing directly
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height,
+                0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+        texture = new Texture(textureId, width, height);
+
+        framebufferId = GL30.glGenFramebuffers();
+        int previous = GL11.glGetInteger(GL30.GL_FRAMEBUFFER_BINDING);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebufferId);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, textureId, 0);
+        int status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, previous);
+        if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            cleanup();
+            throw new RuntimeException("Incomplete framebuffer: 0x" + Integer.toHexString(status));
+        }
+    }
+
+    /**
+     * Redirect drawing into the target, cleared to transparent. Calls may nest across different targets.
+     */
+    public void begin(float originX, float originY) {
+        previousFramebuffer = GL11.glGetInteger(GL30.GL_FRAMEBUFFER_BINDING);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebufferId);
+        // Only the clear colour is saved around the clear; blending stays under RenderState's control
+        GL11.glPushAttrib(GL11.GL_COLOR_BUFFER_BIT);
+        GL11.glClearColor(0, 0, 0, 0);
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+        GL11.glPopAttrib();
+        GL11.glPushAttrib(GL11.GL_VIEWPORT_BIT);
+        GL11.glViewport(0, 0, texture.getWidth(), texture.getHeight());
+
+        GL11.glMatrixMode(GL11.GL_PROJECTION);
+        GL11.glPushMatrix();
+        GL11.glLoadIdentity();
+        GL11.glOrtho(0, texture.getWidth(), texture.getHeight(), 0, -1, 1);
+        GL11.glMatrixMode(GL11.GL_MODELVIEW);
+        GL11.glPushMatrix();
+        GL11.glLoadIdentity();
+        GL11.glTranslatef(-originX, -originY, 0);
+    }
+
+    public void end() {
+        GL11.glMatrixMode(GL11.GL_PROJECTION);
+        GL11.glPopMatrix();
+        GL11.glMatrixMode(GL11.GL_MODELVIEW);
+        GL11.glPopMatrix();
+        GL11.glPopAttrib();
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, previousFramebuffer);
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    public int getWidth() {
+        return texture.getWidth();
+    }
+
+    public int getHeight() {
+        return texture.getHeight();
+    }
+
+    public void cleanup() {
+        GL30.glDeleteFramebuffers(framebufferId);
+        texture.cleanup();
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A linked GLSL vertex + fragment shader pair. Shaders can use the compatibility built-ins
+ * (gl_Vertex, gl_Color, ftransform) to slot into the existing fixed-function setup.
+ * The uniform setters apply to this program, which must be bound.
+ */
+public final class ShaderProgram {
+
+    private final int programId;
+    private final Map<String, Integer> uniformLocations = new HashMap<>();
+
+    public ShaderProgram(String vertexSource, String fragmentSource) {
+        int vertexShader = compile(GL20.GL_VERTEX_SHADER, vertexSource);
+        int fragmentShader = compile(GL20.GL_FRAGMENT_SHADER, fragmentSource);
+
+        programId = GL20.glCreateProgram();
+        GL20.glAttachShader(programId, vertexShader);
+        GL20.glAttachShader(programId, fragmentShader);
+        GL20.glLinkProgram(programId);
+
+        // Shader objects are no longer needed once linked
+        GL20.glDetachShader(programId, vertexShader);
+        GL20.glDetachShader(programId, fragmentShader);
+        GL20.glDeleteShader(vertexShader);
+        GL20.glDeleteShader(fragmentShader);
+
+        if (GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+            String log = GL20.glGetProgramInfoLog(programId);
+            GL20.glDeleteProgram(programId);
+            throw new RuntimeException("Failed to link shader program: " + log);
+        }
+    }
+
+    /**
+     * Load both stages from the classpath, e.g. "assets/shaders/sdf_text.vert".
+     */
+    public static ShaderProgram load(String vertexPath, String fragmentPath) {
+        return new ShaderProgram(readSource(vertexPath), readSource(fragmentPath));
+    }
+
+    public void bind() {
+        GL20.glUseProgram(programId);
+    }
+
+    public void unbind() {
+        GL20.glUseProgram(0);
+    }
+
+    /**
+     * Set an int or sampler uniform.
+     */
+    public void setUniform(String name, int value) {
+        GL20.glUniform1i(uniformLocation(name), value);
+    }
+
+    public void setUniform(String name, int x, int y) {
+        GL20.glUniform2i(uniformLocation(name), x, y);
+    }
+
+    public void setUniform(String name, float value) {
+        GL20.glUniform1f(uniformLocation(name), value);
+    }
+
+    public void setUniform(String name, float x, float y) {
+        GL20.glUniform2f(uniformLocation(name), x, y);
+    }
+
+    /**
+     * Set an int[] uniform array from {@code values}.
+     */
+    public void setUniformArray(String name, int[] values) {
+        GL20.glUniform1iv(uniformLocation(name), values);
+    }
+
+    /**
+     * Set a vec3[] uniform array from tightly packed x, y, z triples.
+     */
+    public void setUniformVec3Array(String name, float[] values) {
+        GL20.glUniform3fv(uniformLocation(name), values);
+    }
+
+    public void cleanup() {
+        GL20.glDeleteProgram(programId);
+    }
+
+    private int uniformLocation(String name) {
+        Integer location = uniformLocations.get(name);
+        if (location == null) {
+            location = GL20.glGetUniformLocation(programId, name);
+            uniformLocations.put(name, location);
+        }
+        return location;
+    }
+
+    private static int compile(int type, String source) {
+        int shader = GL20.glCreateShader(type);
+        GL20.glShaderSource(shader, source);
+        GL20.glCompileShader(shader);
+        if (GL20.glGetShaderi(shader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+            String log = GL20.glGetShaderInfoLog(shader);
+            GL20.glDeleteShader(shader);
+            throw new RuntimeException("Failed to compile shader: " + log);
+        }
+        return shader;
+    }
+
+    private static String readSource(String path) {
+        try (InputStream is = ShaderProgram.class.getClassLoader().getResourceAsStream(path)) {
+            if (is == null) {
+                throw new RuntimeException("Shader not found: " + path);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load shader: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * Collects quads, outlines, points and sprites into one vertex buffer and draws them together.
+ * <p>
+ * Everything is emitted as quads (an outline is four thin quads, a point is a small square), so the
+ * only thing that forces a flush is a texture change or running out of capacity. Call {@link #begin()}
+ * before submitting and {@link #end()} once done; the current modelview matrix applies to the whole batch.
+ */
+public final class SpriteBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int maxQuads;
+    private final VertexBuffer buffer;
+
+    // Texture of the quads waiting in the buffer, null for untextured colour quads
+    private Texture currentTexture;
+    private int quadCount;
+    private boolean drawing;
+
+    private int flushCount;
+
+    public SpriteBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param maxQuads quads buffered before the batch flushes on its own
+     */
+    public SpriteBatch(int maxQuads) {
+        this.maxQuads = maxQuads;
+        this.buffer = new VertexBuffer(maxQuads * 4, GL15.GL_STREAM_DRAW);
+    }
+
+    public void begin() {
+        if (drawing) {
+            throw new IllegalStateException("SpriteBatch.begin() called twice without end()");
+        }
+        drawing = true;
+        flushCount = 0;
+        quadCount = 0;
+        currentTexture = null;
+        buffer.clear();
+    }
+
+    public void end() {
+        if (!drawing) {
+            throw new IllegalStateException("SpriteBatch.end() called without begin()");
+        }
+        flush();
+        drawing = false;
+    }
+
+    public void fillRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        prepare(null);
+        buffer.quad(x, y, x + width, y + height, 0, 0, 0, 0, r, g, b, a);
+        quadCount++;
+    }
+
+    /**
+     * Outline drawn inside the rectangle's edges, {@code thickness} world units wide.
+     */
+    public void strokeRect(float x, float y, float width, float height, float thickness,
+                           float r, float g, float b, float a) {
+        fillRect(x, y, width, thickness, r, g, b, a);
+        fillRect(x, y + height - thickness, width, thickness, r, g, b, a);
+        fillRect(x, y + thickness, thickness, height - thickness * 2, r, g, b, a);
+        fillRect(x + width - thickness, y + thickness, thickness, height - thickness * 2, r, g, b, a);
+    }
+
+    /**
+     * Square dot centred on (x, y) — replaces glPointSize + GL_POINTS.
+     */
+    public void point(float x, float y, float size, float r, float g, float b, float a) {
+        float half = size / 2f;
+        fillRect(x - half, y - half, size, size, r, g, b, a);
+    }
+
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        draw(region, x, y, width, height, 1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    public void draw(TextureRegion region, float x, float y, float width, float height,
+                     float r, float g, float b, float a) {
+        prepare(region.getTexture());
+        buffer.quad(x, y, x + width, y + height,
+                region.getU0(), region.getV0(), region.getU1(), region.getV1(), r, g, b, a);
+        quadCount++;
+    }
+
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        prepare(texture);
+        buffer.quad(x, y, x + width, y + height, 0, 0, 1, 1, 1.0f, 1.0f, 1.0f, 1.0f);
+        quadCount++;
+    }
+
+    /**
+     * Draw everything buffered so far. Called automatically on texture changes, when full, and by {@link #end()}.
+     */
+    public void flush() {
+        if (quadCount == 0) {
+            return;
+        }
+        buffer.upload();
+
+        RenderState state = RenderState.getInstance();
+        state.setBlendMode(BlendMode.ALPHA);
+        state.setTexture(currentTexture);
+        buffer.draw(GL11.GL_QUADS, currentTexture != null, true);
+
+        buffer.clear();
+        quadCount = 0;
+        flushCount++;
+        RenderStats.recordBatchFlush();
+    }
+
+    /**
+     * Flushes performed since the last {@link #begin()}. Ideally one per texture used.
+     */
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    public int getCapacity() {
+        return maxQuads;
+    }
+
+    public void cleanup() {
+        buffer.cleanup();
+    }
+
+    private void prepare(Texture texture) {
+        if (!drawing) {
+            throw new IllegalStateException("SpriteBatch.begin() must be called before drawing");
+        }
+        if (texture != currentTexture || quadCount >= maxQuads) {
+            flush();
+            currentTexture = texture;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.util.Arrays;
+
+/**
+ * A string laid out once into a static vertex buffer. Glyph quads are positioned relative to the
+ * baseline origin with the scale already applied, so drawing it is a translate plus one draw call
+ * per glyph atlas page. Colour is not part of the mesh — it comes from the current glColor.
+ * <p>
+ * The mesh is laid out again when the font evicts glyphs, or while some of its glyphs are still
+ * waiting for the font's per-frame rasterisation budget.
+ */
+public final class TextMesh {
+
+    private final BitmapFont font;
+    private final String text;
+    private final float scale;
+    private final VertexBuffer buffer;
+    private final float width;
+
+    // One range of quads per glyph page, in the order the font emitted them
+    private int[] rangePage = new int[1];
+    private int[] rangeFirstQuad = new int[1];
+    private int[] rangeQuadCount = new int[1];
+    private int rangeCount;
+    private int quadCount;
+
+    private boolean complete;
+    private int glyphGeneration;
+
+    private final GlyphCache.PageSink sink = this::addGlyph;
+
+    TextMesh(BitmapFont font, String text, float scale) {
+        this.font = font;
+        this.text = text;
+        this.scale = scale;
+        this.buffer = new VertexBuffer(text.length() * 4, GL15.GL_STATIC_DRAW);
+        this.width = font.measureWidth(text) * scale;
+        build();
+    }
+
+    /**
+     * True if glyphs the mesh points at were evicted, or some were missing when it was laid out.
+     */
+    boolean isStale() {
+        return !complete || glyphGeneration != font.getGlyphGeneration();
+    }
+
+    void rebuild() {
+        build();
+    }
+
+    /**
+     * Draw with the baseline origin at the current modelview origin, binding each glyph page it uses.
+     * Blending must already be set up.
+     */
+    public void draw() {
+        RenderState state = RenderState.getInstance();
+        for (int i = 0; i < rangeCount; i++) {
+            state.setTexture(font.getPage(rangePage[i]));
+            buffer.draw(GL11.GL_QUADS, rangeFirstQuad[i] * 4, rangeQuadCount[i] * 4, true, false);
+        }
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    void cleanup() {
+        buffer.cleanup();
+    }
+
+    private void build() {
+        buffer.clear();
+        rangeCount = 0;
+        quadCount = 0;
+        complete = font.layout(text, scale, sink);
+        // Read after layout: evictions it caused never touch its own glyphs
+        glyphGeneration = font.getGlyphGeneration();
+        buffer.upload();
+    }
+
+    private void addGlyph(int page, float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1) {
+        if (rangeCount == 0 || rangePage[rangeCount - 1] != page) {
+            if (rangeCount == rangePage.length) {
+                rangePage = Arrays.copyOf(rangePage, rangeCount * 2);
+                rangeFirstQuad = Arrays.copyOf(rangeFirstQuad, rangeCount * 2);
+                rangeQuadCount = Arrays.copyOf(rangeQuadCount, rangeCount * 2);
+            }
+            rangePage[rangeCount] = page;
+            rangeFirstQuad[rangeCount] = quadCount;
+            rangeQuadCount[rangeCount] = 0;
+            rangeCount++;
+        }
+        buffer.quad(x0, y0, x1, y1, u0, v0, u1, v1, 1.0f, 1.0f, 1.0f, 1.0f);
+        rangeQuadCount[rangeCount - 1]++;
+        quadCount++;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of {@link TextMesh}es keyed by (font, text, scale).
+ * Static labels are laid out once; strings that change (e.g. an item count) get a new mesh,
+ * and the stale one is evicted once it falls out of use. A cached mesh whose glyphs changed in the
+ * font's glyph cache is laid out again in place.
+ */
+public final class TextMeshCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Key, TextMesh> meshes;
+
+    // Reused for lookups so a cache hit doesn't allocate
+    private final Key lookupKey = new Key();
+
+    private int hits;
+    private int misses;
+
+    public TextMeshCache(int capacity) {
+        this.capacity = capacity;
+        this.meshes = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TextMesh> eldest) {
+                if (size() > TextMeshCache.this.capacity) {
+                    eldest.getValue().cleanup();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public TextMesh get(BitmapFont font, String text, float scale) {
+        lookupKey.set(font, text, scale);
+        TextMesh mesh = meshes.get(lookupKey);
+        if (mesh != null) {
+            hits++;
+            if (mesh.isStale()) {
+                mesh.rebuild();
+            }
+            return mesh;
+        }
+
+        misses++;
+        mesh = new TextMesh(font, text, scale);
+        Key key = new Key();
+        key.set(font, text, scale);
+        meshes.put(key, mesh);
+        return mesh;
+    }
+
+    public int size() {
+        return meshes.size();
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public void clear() {
+        meshes.values().forEach(TextMesh::cleanup);
+        meshes.clear();
+    }
+
+    private static final class Key {
+        private BitmapFont font;
+        private String text;
+        private float scale;
+
+        private void set(BitmapFont font, String text, float scale) {
+            this.font = font;
+            this.text = text;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return font == other.font && Float.compare(scale, other.scale) == 0 && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(font);
+            result = 31 * result + text.hashCode();
+            return 31 * result + Float.floatToIntBits(scale);
+        }
+    }
+}
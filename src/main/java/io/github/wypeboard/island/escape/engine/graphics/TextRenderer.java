@@ -1,20 +1,29 @@
 package io.github.wypeboard.island.escape.engine.graphics;
 
 import io.github.wypeboard.island.escape.utils.Logger;
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
 
 /**
  * Singleton text renderer backed by a real bitmap font (STB TrueType).
  * Drop-in replacement for the old placeholder version — same public API.
+ * Uses a signed distance field font when GL 2.0 shaders are available, so any scale renders sharply.
  */
 public final class TextRenderer {
 
     private static final String FONT_PATH  = "assets/fonts/FiraSans-Regular.ttf";
     private static final float  FONT_SIZE  = 16f;
+    // Distinct (text, scale) pairs kept laid out — well above what a menu plus the HUD shows at once
+    private static final int    TEXT_MESH_CACHE_SIZE = 256;
+    private static final String SDF_VERTEX_SHADER   = "assets/shaders/sdf_text.vert";
+    private static final String SDF_FRAGMENT_SHADER = "assets/shaders/sdf_text.frag";
 
     private static TextRenderer instance;
 
     private BitmapFont font;
+    // Set when the font is in SDF mode; null means plain alpha-blended bitmaps
+    private ShaderProgram sdfShader;
+    private final TextMeshCache meshCache = new TextMeshCache(TEXT_MESH_CACHE_SIZE);
     private boolean initialized = false;
 
     private TextRenderer() {
@@ -32,6 +41,24 @@ public final class TextRenderer {
         if (initialized) {
             return;
         }
+        // One SDF atlas stays sharp at every scale; bitmaps are the fallback without GL 2.0 shaders
+        if (GL.getCapabilities().OpenGL20) {
+            try {
+                sdfShader = ShaderProgram.load(SDF_VERTEX_SHADER, SDF_FRAGMENT_SHADER);
+                sdfShader.bind();
+                sdfShader.setUniform("glyphPage", 0);
+                sdfShader.unbind();
+                font = new BitmapFont(FONT_PATH, FONT_SIZE, BitmapFont.Mode.SDF);
+                initialized = true;
+                return;
+            } catch (Exception e) {
+                Logger.error(this.getClass(), "Failed to set up SDF text, falling back to bitmap font.", e);
+                if (sdfShader != null) {
+                    sdfShader.cleanup();
+                    sdfShader = null;
+                }
+            }
+        }
         try {
             font = new BitmapFont(FONT_PATH, FONT_SIZE);
             initialized = true;
@@ -69,32 +96,26 @@ public final class TextRenderer {
             return;
         }
 
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, font.getTextureId());
+        RenderState.getInstance().setBlendMode(BlendMode.ALPHA);
         GL11.glColor3f(r, g, b);
 
         // STB TrueType uses a Y-down baseline. We pass (x, y + lineHeight) so that
         // "y" behaves as the top of the text, matching the old TextRenderer convention.
         float baseline = y + font.getLineHeight() * scale;
 
+        // Laid out once per (text, scale) and reused — only new or changed strings pay for layout
+        TextMesh mesh = meshCache.get(font, text, scale);
+
         GL11.glPushMatrix();
         GL11.glTranslatef(x, baseline, 0);
-        GL11.glScalef(scale, scale, 1);
-
-        GL11.glBegin(GL11.GL_QUADS);
-        float cursorX = 0;
-        for (int i = 0; i < text.length(); i++) {
-            cursorX = font.renderChar(text.charAt(i), cursorX, 0);
+        if (sdfShader != null) {
+            sdfShader.bind();
+            mesh.draw();
+            sdfShader.unbind();
+        } else {
+            mesh.draw();
         }
-        GL11.glEnd();
-
         GL11.glPopMatrix();
-
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        GL11.glDisable(GL11.GL_BLEND);
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
     }
 
     /**
@@ -197,9 +218,10 @@ public final class TextRenderer {
         float height = getTextHeight(scale);
         float padding = 4 * scale;
 
-        // Enable blending for transparent background
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        // Untextured, blended background
+        RenderState state = RenderState.getInstance();
+        state.setTexture(null);
+        state.setBlendMode(BlendMode.ALPHA);
 
         // Draw background
         GL11.glColor4f(bgR, bgG, bgB, bgAlpha);
@@ -210,16 +232,50 @@ public final class TextRenderer {
         GL11.glVertex2f(x - padding, y + height + padding);
         GL11.glEnd();
 
-        GL11.glDisable(GL11.GL_BLEND);
-
         // Draw text
         drawText(text, x, y, scale, textR, textG, textB);
     }
 
+    /**
+     * Call once per frame before drawing text — refills the font's glyph rasterisation budget.
+     */
+    public void beginFrame() {
+        if (initialized) {
+            font.beginFrame();
+        }
+    }
+
+    /**
+     * The font's first glyph page — what render queue commands drawing text are tagged with.
+     */
+    public Texture getGlyphTexture() {
+        return initialized ? font.getPage(0) : null;
+    }
+
+    /**
+     * Shader glyph pages must be drawn with, or null for plain alpha-blended bitmaps.
+     */
+    ShaderProgram getGlyphShader() {
+        return sdfShader;
+    }
+
+    public BitmapFont getFont() {
+        return font;
+    }
+
+    public TextMeshCache getMeshCache() {
+        return meshCache;
+    }
+
     public void cleanup() {
+        meshCache.clear();
         if (font != null) {
             font.cleanup();
         }
+        if (sdfShader != null) {
+            sdfShader.cleanup();
+            sdfShader = null;
+        }
         initialized = false;
     }
 }
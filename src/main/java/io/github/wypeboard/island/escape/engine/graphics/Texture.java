@@ -15,6 +15,7 @@ public final class Texture {
     }
 
     public void bind() {
+        RenderStats.recordTextureBind();
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
     }
 
@@ -0,0 +1,244 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Packs many small images into a few large texture pages so they can be drawn with one bind.
+ * Uses a simple shelf packer: images are placed left to right, and a new shelf is started
+ * below when a row is full. Feeding images tallest-first keeps the wasted space low.
+ * <p>
+ * Where GL 2.1 is available, pixels go through a pixel buffer object: the copy into it is a plain
+ * memcpy, and the transfer into the page can then happen asynchronously on the driver's side.
+ * <p>
+ * A {@link TextureFilter#MIPMAPPED} atlas surrounds every image with a gutter of its edge texels and
+ * aligns images to the coarsest mip level's blocks, so downsampling never mixes neighbouring images.
+ * Its pages get mip levels in {@link #updateMipmaps()}; until then they sample without them.
+ */
+public final class TextureAtlas {
+
+    private static final int MAX_PAGE_SIZE = 2048;
+
+    private final int pageSize;
+    private final List<Texture> pages = new ArrayList<>();
+    private final TextureFilter filter;
+    // Texels of repeated edge around each image, and the multiple every position and size is rounded to
+    private final int gutter;
+    private final int alignment;
+    // Pages written since their mip levels were last generated
+    private final BitSet staleMipmaps = new BitSet();
+    // Image plus gutter, staged before upload; grown as needed
+    private ByteBuffer padded;
+
+    private int shelfX;
+    private int shelfY;
+    private int shelfHeight;
+
+    // 0 without GL 2.1
+    private int pixelBuffer;
+
+    public TextureAtlas() {
+        this(TextureFilter.NEAREST);
+    }
+
+    /**
+     * @param filter falls back to {@link TextureFilter#NEAREST} where mipmaps can't be generated
+     */
+    public TextureAtlas(TextureFilter filter) {
+        this.filter = filter.resolve();
+        this.gutter = this.filter == TextureFilter.MIPMAPPED ? 1 << TextureFilter.MAX_MIP_LEVEL : 0;
+        this.alignment = Math.max(1, gutter);
+        int maxTextureSize = GL11.glGetInteger(GL11.GL_MAX_TEXTURE_SIZE);
+        this.pageSize = Math.min(MAX_PAGE_SIZE, maxTextureSize);
+        if (GL.getCapabilities().OpenGL21) {
+            pixelBuffer = GL15.glGenBuffers();
+        }
+    }
+
+    /**
+     * Copy the image into the current page (starting a new one when full) and return its UV rectangle.
+     * The image is not freed — the caller still owns it.
+     */
+    public TextureRegion add(ImageData image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int cellWidth = alignUp(width + gutter * 2);
+        int cellHeight = alignUp(height + gutter * 2);
+        if (cellWidth > pageSize || cellHeight > pageSize) {
+            throw new IllegalArgumentException("Image " + image.getPath() + " (" + width + "x" + height
+                    + ") does not fit in a " + pageSize + "px atlas page");
+        }
+
+        if (pages.isEmpty()) {
+            newPage();
+        }
+        if (shelfX + cellWidth > pageSize) {
+            shelfY += shelfHeight;
+            shelfX = 0;
+            shelfHeight = 0;
+        }
+        if (shelfY + cellHeight > pageSize) {
+            newPage();
+        }
+
+        Texture page = pages.get(pages.size() - 1);
+        ByteBuffer pixels = gutter == 0 ? image.getPixels() : extrude(image, cellWidth, cellHeight);
+        upload(page, shelfX, shelfY, cellWidth, cellHeight, pixels);
+        staleMipmaps.set(pages.size() - 1);
+
+        float size = pageSize;
+        int x = shelfX + gutter;
+        int y = shelfY + gutter;
+        TextureRegion region = new TextureRegion(page,
+                x / size, y / size,
+                (x + width) / size, (y + height) / size);
+
+        shelfX += cellWidth;
+        shelfHeight = Math.max(shelfHeight, cellHeight);
+        return region;
+    }
+
+    /**
+     * Generate mip levels for every page changed since the last call, e.g. once a batch of images is in.
+     * Does nothing for a {@link TextureFilter#NEAREST} atlas.
+     */
+    public void updateMipmaps() {
+        if (filter != TextureFilter.MIPMAPPED) {
+            return;
+        }
+        for (int page = staleMipmaps.nextSetBit(0); page >= 0; page = staleMipmaps.nextSetBit(page + 1)) {
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, pages.get(page).getTextureId());
+            filter.apply(GL11.GL_TEXTURE_2D);
+        }
+        staleMipmaps.clear();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+    }
+
+    public TextureFilter getFilter() {
+        return filter;
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void cleanup() {
+        for (Texture page : pages) {
+            page.cleanup();
+        }
+        pages.clear();
+        staleMipmaps.clear();
+        if (padded != null) {
+            MemoryUtil.memFree(padded);
+            padded = null;
+        }
+        if (pixelBuffer != 0) {
+            GL15.glDeleteBuffers(pixelBuffer);
+            pixelBuffer = 0;
+        }
+    }
+
+    private int alignUp(int value) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+
+    /**
+     * The image in the middle of a cellWidth x cellHeight block, its outermost texels repeated out to the edges.
+     */
+    private ByteBuffer extrude(ImageData image, int cellWidth, int cellHeight) {
+        int capacity = cellWidth * cellHeight * 4;
+        if (padded == null || padded.capacity() < capacity) {
+            if (padded != null) {
+                MemoryUtil.memFree(padded);
+            }
+            padded = MemoryUtil.memAlloc(capacity);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long source = MemoryUtil.memAddress(image.getPixels());
+        long target = MemoryUtil.memAddress(padded);
+        for (int row = 0; row < cellHeight; row++) {
+            int sourceRow = Math.min(Math.max(row - gutter, 0), height - 1);
+            long sourceStart = source + (long) sourceRow * width * 4;
+            long targetStart = target + (long) row * cellWidth * 4;
+            MemoryUtil.memCopy(sourceStart, targetStart + gutter * 4L, width * 4L);
+            int left = MemoryUtil.memGetInt(sourceStart);
+            int right = MemoryUtil.memGetInt(sourceStart + (width - 1) * 4L);
+            for (int column = 0; column < gutter; column++) {
+                MemoryUtil.memPutInt(targetStart + column * 4L, left);
+            }
+            for (int column = gutter + width; column < cellWidth; column++) {
+                MemoryUtil.memPutInt(targetStart + column * 4L, right);
+            }
+        }
+        padded.limit(capacity);
+        return padded;
+    }
+
+    private void newPage() {
+        int textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
+
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, pageSize, pageSize,
+                0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+
+        pages.add(new Texture(textureId, pageSize, pageSize));
+        shelfX = 0;
+        shelfY = 0;
+        shelfHeight = 0;
+    }
+
+    private void upload(Texture page, int x, int y, int width, int height, ByteBuffer pixels) {
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, page.getTextureId());
+        if (pixelBuffer == 0 || !uploadThroughPixelBuffer(x, y, width, height, pixels)) {
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, width, height,
+                    GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+        }
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+    }
+
+    /**
+     * @return false if the buffer couldn't be mapped, leaving the upload to the caller
+     */
+    private boolean uploadThroughPixelBuffer(int x, int y, int width, int height, ByteBuffer pixels) {
+        long size = (long) width * height * 4;
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, pixelBuffer);
+        // Orphan the previous contents, so this doesn't wait for an earlier transfer still reading them
+        GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, size, GL15.GL_STREAM_DRAW);
+        ByteBuffer mapped = GL15.glMapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, GL15.GL_WRITE_ONLY, size, null);
+        boolean uploaded = false;
+        if (mapped != null) {
+            MemoryUtil.memCopy(MemoryUtil.memAddress(pixels), MemoryUtil.memAddress(mapped), size);
+            // False if the contents were lost while mapped; the caller then uploads directly
+            if (GL15.glUnmapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER)) {
+                GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, width, height,
+                        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+                uploaded = true;
+            }
+        }
+        // Left bound, it would turn every later client-memory upload into a buffer offset
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+        return uploaded;
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import io.github.wypeboard.island.escape.utils.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps decoded RGBA pixels on disk, one file per source image, so later launches skip PNG/JPG
+ * decoding. An entry is keyed by the source's path, size and modification time; if any of them no
+ * longer match, the image is decoded again and the entry rewritten.
+ * <p>
+ * Hits are memory-mapped, and the returned {@link ImageData} points straight into the mapping, so the
+ * pixels go from the page cache into the GL upload without another copy. Safe to call from the
+ * decoder threads; entries are written to a temporary file and moved into place.
+ * <p>
+ * Entry layout: magic, version, source size, source modification time, width, height, source path
+ * length and UTF-8 bytes, then width * height * 4 bytes of pixels as stb_image returned them.
+ */
+public final class TextureCache {
+
+    private static final String DEFAULT_DIRECTORY = "cache/textures";
+    private static final String ENTRY_EXTENSION = ".rgba";
+    private static final int MAGIC = 0x49455443; // "IETC"
+    private static final int VERSION = 1;
+    // Magic, version, size, modification time, width, height, path length
+    private static final int FIXED_HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    private static TextureCache instance;
+
+    private volatile Path directory = Paths.get(DEFAULT_DIRECTORY);
+    private volatile boolean enabled = true;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private TextureCache() {
+        // Private constructor for singleton
+    }
+
+    public static synchronized TextureCache getInstance() {
+        if (instance == null) {
+            instance = new TextureCache();
+        }
+        return instance;
+    }
+
+    /**
+     * The decoded image at {@code path}, from the cache if a current entry exists, otherwise decoded
+     * and stored for next time. Failing to read or write the cache only costs the decode.
+     */
+    public ImageData load(String path) {
+        if (!enabled) {
+            return TextureLoader.decodeImage(path);
+        }
+        Path source = Paths.get(path).toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Missing source — let the decoder report it
+            return TextureLoader.decodeImage(path);
+        }
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Path entry = entryFor(source);
+
+        ImageData cached = read(entry, path, source.toString(), size, modified);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        ImageData image = TextureLoader.decodeImage(path);
+        write(entry, source.toString(), size, modified, image);
+        return image;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getHitCount() {
+        return hits.get();
+    }
+
+    public int getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Delete every entry, e.g. after changing how images are decoded.
+     */
+    public void clear() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (var entries = Files.newDirectoryStream(directory, "*" + ENTRY_EXTENSION)) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+            }
+        } catch (IOException e) {
+            Logger.error(getClass(), "Failed to clear texture cache " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private Path entryFor(Path source) {
+        // The file name keeps entries readable; the hash tells same-named files in different folders apart
+        String name = source.getFileName() + "." + Integer.toHexString(source.toString().hashCode()) + ENTRY_EXTENSION;
+        return directory.resolve(name);
+    }
+
+    /**
+     * The entry's pixels, or null if there is no entry or it is stale, truncated or for another file.
+     */
+    private ImageData read(Path entry, String path, String source, long size, long modified) {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            // Stays valid after the channel closes, until the buffer is garbage collected
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < FIXED_HEADER_BYTES
+                    || mapped.getInt() != MAGIC
+                    || mapped.getInt() != VERSION
+                    || mapped.getLong() != size
+                    || mapped.getLong() != modified) {
+                Logger.debug(getClass(), "Stale texture cache entry " + entry.getFileName() + ", rebuilding");
+                return null;
+            }
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            int pathLength = mapped.getInt();
+            if (pathLength < 0 || pathLength > mapped.remaining()) {
+                return null;
+            }
+            byte[] pathBytes = new byte[pathLength];
+            mapped.get(pathBytes);
+            if (!source.equals(new String(pathBytes, StandardCharsets.UTF_8))) {
+                return null;
+            }
+            long pixelBytes = (long) width * height * 4;
+            if (width <= 0 || height <= 0 || mapped.remaining() != pixelBytes) {
+                return null;
+            }
+            ByteBuffer pixels = mapped.slice();
+            return new ImageData(path, width, height, pixels, false);
+        } catch (IOException e) {
+            Logger.error(getClass(), "Failed to read texture cache entry " + entry + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Path entry, String source, long size, long modified, ImageData image) {
+        byte[] pathBytes = source.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES + pathBytes.length);
+        header.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(modified)
+                .putInt(image.getWidth()).putInt(image.getHeight())
+                .putInt(pathBytes.length).put(pathBytes)
+                .flip();
+        // Duplicated so the caller's buffer position is left alone
+        ByteBuffer pixels = image.getPixels().duplicate();
+        pixels.limit(pixels.position() + image.getWidth() * image.getHeight() * 4);
+
+        Path temporary = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            temporary = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (pixels.hasRemaining()) {
+                    channel.write(pixels);
+                }
+            }
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // E.g. a read-only install, or an old entry still mapped on Windows — next launch decodes again
+            Logger.error(getClass(), "Failed to write texture cache entry " + entry + ": " + e.getMessage());
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // Nothing more to do
+                }
+            }
+        }
+    }
+}
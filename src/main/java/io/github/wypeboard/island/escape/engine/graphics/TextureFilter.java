@@ -0,0 +1,46 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * How a texture is sampled. Magnification is always nearest-neighbour, so pixel art stays crisp up
+ * close; the policies differ in minification, which is what shimmers when zoomed out.
+ */
+public enum TextureFilter {
+    NEAREST,    // no mipmaps, nearest texel at every zoom
+    MIPMAPPED;  // trilinear between mip levels when minified, where glGenerateMipmap is available
+
+    /**
+     * Mip levels below the base that {@link #MIPMAPPED} textures get. Atlases keep this many levels
+     * free of bleeding with a gutter of {@code 1 << MAX_MIP_LEVEL} texels around every image.
+     */
+    public static final int MAX_MIP_LEVEL = 2;
+
+    /**
+     * {@link #MIPMAPPED} where mipmaps can be generated, otherwise {@link #NEAREST}.
+     */
+    public TextureFilter resolve() {
+        if (this == MIPMAPPED && !GL.getCapabilities().OpenGL30 && !GL.getCapabilities().GL_ARB_framebuffer_object) {
+            return NEAREST;
+        }
+        return this;
+    }
+
+    /**
+     * Generate the mip levels of the texture bound to {@code target} and switch it to this policy's
+     * filters. Call again after changing its base level.
+     */
+    public void apply(int target) {
+        GL11.glTexParameteri(target, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        if (this == MIPMAPPED) {
+            GL11.glTexParameteri(target, GL12.GL_TEXTURE_MAX_LEVEL, MAX_MIP_LEVEL);
+            GL30.glGenerateMipmap(target);
+            GL11.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
+        } else {
+            GL11.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+/**
+ * A texture that may still be loading, from {@link AsyncTextureLoader#loadTexture(String)}. Until the
+ * upload completes, and for good if loading fails, {@link #getTexture()} returns a placeholder.
+ * Only used on the GL thread.
+ */
+public final class TextureHandle implements AsyncTextureLoader.Upload {
+
+    private final String path;
+    private final Texture placeholder;
+    private final TextureFilter filter;
+    private Texture texture;
+    private boolean failed;
+    private boolean disposed;
+
+    TextureHandle(String path, Texture placeholder, TextureFilter filter) {
+        this.path = path;
+        this.placeholder = placeholder;
+        this.filter = filter;
+    }
+
+    public Texture getTexture() {
+        return texture != null ? texture : placeholder;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isLoaded() {
+        return texture != null;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public void uploaded(ImageData image) {
+        if (!disposed) {
+            texture = TextureLoader.createTexture(image, filter);
+        }
+        image.free();
+    }
+
+    @Override
+    public void failed(String path, RuntimeException e) {
+        failed = true;
+        System.err.println("Failed to load texture: " + path + " - " + e.getMessage());
+    }
+
+    /**
+     * Delete the texture; one still loading is dropped when it arrives.
+     */
+    public void cleanup() {
+        disposed = true;
+        if (texture != null) {
+            texture.cleanup();
+            texture = null;
+        }
+    }
+}
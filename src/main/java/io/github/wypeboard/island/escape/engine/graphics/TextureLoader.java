@@ -14,24 +14,49 @@ public final class TextureLoader {
     }
 
     public static Texture loadTexture(String path) {
-        ByteBuffer imageBuffer;
-        int width;
-        int height;
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer w = stack.mallocInt(1);
-            IntBuffer h = stack.mallocInt(1);
-            IntBuffer channels = stack.mallocInt(1);
+        ImageData image = loadImage(path);
+        Texture texture = createTexture(image);
+        image.free();
 
-            STBImage.stbi_set_flip_vertically_on_load(true);
-            imageBuffer = STBImage.stbi_load(path, w, h, channels, 4);
+        System.out.println("Loaded texture: " + path + " (" + image.getWidth() + "x" + image.getHeight() + ")");
 
-            if (imageBuffer == null) {
-                throw new RuntimeException("Failed to load texture: " + path + " - " + STBImage.stbi_failure_reason());
-            }
-            width = w.get(0);
-            height = h.get(0);
+        return texture;
+    }
+
+    /**
+     * Upload decoded pixels into a new texture. The image is not freed — the caller still owns it.
+     */
+    public static Texture createTexture(ImageData image) {
+        return createTexture(image, TextureFilter.NEAREST);
+    }
+
+    /**
+     * Same, with mip levels if {@code filter} asks for them and they are supported.
+     */
+    public static Texture createTexture(ImageData image, TextureFilter filter) {
+        Texture texture = createTexture(image.getWidth(), image.getHeight(), image.getPixels());
+        TextureFilter resolved = filter.resolve();
+        if (resolved != TextureFilter.NEAREST) {
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture.getTextureId());
+            resolved.apply(GL11.GL_TEXTURE_2D);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        }
+        return texture;
+    }
+
+    /**
+     * A 1x1 texture of one colour, e.g. to stand in for a texture that is still loading.
+     */
+    public static Texture createSolidTexture(float r, float g, float b, float a) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            ByteBuffer pixel = stack.malloc(4);
+            pixel.put(0, (byte) Math.round(r * 255)).put(1, (byte) Math.round(g * 255))
+                    .put(2, (byte) Math.round(b * 255)).put(3, (byte) Math.round(a * 255));
+            return createTexture(1, 1, pixel);
         }
+    }
 
+    private static Texture createTexture(int width, int height, ByteBuffer pixels) {
         int textureId = GL11.glGenTextures();
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
 
@@ -41,13 +66,38 @@ public final class TextureLoader {
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
 
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height,
-                0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, imageBuffer);
+                0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
 
-        STBImage.stbi_image_free(imageBuffer);
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+        return new Texture(textureId, width, height);
+    }
 
-        System.out.println("Loaded texture: " + path + " (" + width + "x" + height + ")");
+    /**
+     * Decode an image into RGBA pixels without touching OpenGL, or read them back from the
+     * {@link TextureCache} if an earlier run already decoded this version of the file.
+     * Used when the pixels are copied somewhere else first, e.g. into an atlas page.
+     */
+    public static ImageData loadImage(String path) {
+        return TextureCache.getInstance().load(path);
+    }
 
-        return new Texture(textureId, width, height);
+    /**
+     * Decode with stb_image, bypassing the cache.
+     */
+    static ImageData decodeImage(String path) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+
+            STBImage.stbi_set_flip_vertically_on_load(true);
+            ByteBuffer imageBuffer = STBImage.stbi_load(path, w, h, channels, 4);
+
+            if (imageBuffer == null) {
+                throw new RuntimeException("Failed to load texture: " + path + " - " + STBImage.stbi_failure_reason());
+            }
+            return new ImageData(path, w.get(0), h.get(0), imageBuffer);
+        }
     }
 }
@@ -0,0 +1,42 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+/**
+ * A rectangle inside a texture, in normalised UV coordinates.
+ * Atlas lookups return these instead of standalone textures.
+ */
+public final class TextureRegion {
+
+    private final Texture texture;
+    private final float u0;
+    private final float v0;
+    private final float u1;
+    private final float v1;
+
+    public TextureRegion(Texture texture, float u0, float v0, float u1, float v1) {
+        this.texture = texture;
+        this.u0 = u0;
+        this.v0 = v0;
+        this.u1 = u1;
+        this.v1 = v1;
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    public float getU0() {
+        return u0;
+    }
+
+    public float getV0() {
+        return v0;
+    }
+
+    public float getU1() {
+        return u1;
+    }
+
+    public float getV1() {
+        return v1;
+    }
+}
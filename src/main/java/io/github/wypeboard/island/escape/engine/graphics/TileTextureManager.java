@@ -1,34 +1,90 @@
 package io.github.wypeboard.island.escape.engine.graphics;
 
 import io.github.wypeboard.island.escape.engine.graphics.world.TileType;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.stb.STBImageResize;
+import org.lwjgl.system.MemoryUtil;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 
+/**
+ * Loads every tile variation (e.g. grass_01.png, grass_02.png) and packs them into a shared
+ * {@link TextureAtlas}, so the whole tile layer can be drawn from one or a few texture binds.
+ * Lookups return the UV rectangle of a variation rather than a standalone texture.
+ * <p>
+ * Loading goes through {@link AsyncTextureLoader}: variations are decoded in the background and
+ * packed as their uploads complete, in arrival order. Until then lookups return null and tiles draw in
+ * their fallback colours; {@link #getRevision()} changes with every arrival so renderers can refresh.
+ * <p>
+ * Where GL 3.0 is available the same variations are also copied into a GL_TEXTURE_2D_ARRAY, one layer
+ * each, ordered by tile type and then variation, for the shader-based grid renderer. The array is
+ * built once every variation is in, since its layer size is the largest of them.
+ * <p>
+ * With {@link TextureFilter#MIPMAPPED} both get mip levels once loading finishes, so tiles don't shimmer
+ * when zoomed out; magnification stays nearest-neighbour either way.
+ */
 public final class TileTextureManager {
 
     private static final Set<String> ACCEPTED_FILE_TYPES = Set.of(".png", ".jpg");
+    private static final int NO_COLOR = -1;
+    private static final TextureRegion[] NO_REGIONS = new TextureRegion[0];
 
-    private final Map<TileType, List<Texture>> tileTextures;
+    // Variation regions per tile type, null while a variation is still loading. Replaced as a whole
+    // on every change, as the chunk mesh worker reads it off the GL thread.
+    private volatile TextureRegion[][] tileRegions;
     private final Random random;
     private final String texturesPath;
+    private TextureAtlas atlas;
+    private TextureFilter filter = TextureFilter.NEAREST;
+    private int revision;
+
+    // Loads of the current loadTileTextures call still to arrive; results of an earlier call are dropped
+    private int pendingLoads;
+    private int loadGeneration;
+    // Packed images kept for the array texture until every load is in; null without GL 3.0
+    private List<PendingImage> arrayImages;
+
+    // 0 when there is no array texture
+    private int arrayTextureId;
+    private int arrayLayerSize;
+    private final int[] arrayFirstLayer = new int[TileType.values().length];
+
+    // Mean colour of each type's packed variations as 0xRRGGBB, NO_COLOR when it has none
+    private final int[] averageColor = new int[TileType.values().length];
+    // Alpha-weighted red, green and blue sums and the alpha sum behind each average
+    private final long[][] colorSums = new long[TileType.values().length][4];
 
     public TileTextureManager(String texturesPath) {
         this.texturesPath = texturesPath;
-        this.tileTextures = new EnumMap<>(TileType.class);
         this.random = new Random();
-
-        for (TileType tileType : TileType.values()) {
-            tileTextures.put(tileType, new ArrayList<>());
-        }
+        this.tileRegions = emptyRegions();
+        Arrays.fill(averageColor, NO_COLOR);
     }
 
+    /**
+     * Load every variation and wait for all of them.
+     */
     public void loadTileTextures() {
+        AsyncTextureLoader loader = AsyncTextureLoader.getInstance();
+        loadTileTextures(loader);
+        loader.finishAll();
+    }
+
+    /**
+     * Start loading every variation in the background; they appear as the loader's uploads complete.
+     */
+    public void loadTileTextures(AsyncTextureLoader loader) {
         File texturesDir = new File(texturesPath);
 
         if (!texturesDir.exists() || !texturesDir.isDirectory()) {
@@ -36,86 +92,374 @@ public final class TileTextureManager {
             return;
         }
 
-        File[] files = texturesDir.listFiles(((dir, name) ->
-                ACCEPTED_FILE_TYPES.contains(name.toLowerCase())
-        ));
+        File[] files = texturesDir.listFiles(((dir, name) -> hasAcceptedExtension(name)));
 
         if (files == null || files.length == 0) {
             System.err.println("No texture files found in: " + texturesPath);
             return;
         }
+        // Sorted so variation indices are stable between runs, whatever order the loads finish in
+        Arrays.sort(files, Comparator.comparing(File::getName));
 
+        cleanup();
+        arrayImages = GL.getCapabilities().OpenGL30 ? new ArrayList<>() : null;
+        TextureRegion[][] regions = emptyRegions();
+        List<VariationLoad> loads = new ArrayList<>();
         for (TileType tileType : TileType.values()) {
-            loadVariationsForType(tileType, files);
+            String prefix = tileType.getTextureName().toLowerCase() + "_";
+            int slot = 0;
+            for (File file : files) {
+                if (file.getName().toLowerCase().startsWith(prefix)) {
+                    loads.add(new VariationLoad(tileType, slot++, file.getName(), loadGeneration));
+                }
+            }
+            regions[tileType.ordinal()] = new TextureRegion[slot];
+        }
+        tileRegions = regions;
+        pendingLoads = loads.size();
+        for (VariationLoad load : loads) {
+            loader.submit(new File(texturesDir, load.fileName).getAbsolutePath(), load);
+        }
+        if (pendingLoads == 0) {
+            finishLoading();
         }
+    }
+
+    public TextureFilter getFilter() {
+        return filter;
+    }
 
-        tileTextures.forEach((tile, textures) -> {
-            if (!textures.isEmpty()) {
-                System.out.println("Loaded " + textures.size() + " texture(s) for " + tile.getTextureName());
+    /**
+     * Filter policy for textures loaded from now on; set before {@link #loadTileTextures}.
+     */
+    public void setFilter(TextureFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Changes whenever a region, an average colour or the array texture does.
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * True once every variation of the last {@link #loadTileTextures} call has arrived or failed.
+     */
+    public boolean isLoaded() {
+        return pendingLoads == 0;
+    }
+
+    private static boolean hasAcceptedExtension(String name) {
+        String lowerName = name.toLowerCase();
+        for (String extension : ACCEPTED_FILE_TYPES) {
+            if (lowerName.endsWith(extension)) {
+                return true;
             }
-        });
+        }
+        return false;
+    }
+
+    private static TextureRegion[][] emptyRegions() {
+        TextureRegion[][] regions = new TextureRegion[TileType.values().length][];
+        Arrays.fill(regions, NO_REGIONS);
+        return regions;
+    }
+
+    /**
+     * Pack one arrived variation into the atlas and fold it into its type's average colour.
+     */
+    private void variationLoaded(VariationLoad load, ImageData image) {
+        if (atlas == null) {
+            atlas = new TextureAtlas(filter);
+        }
+        TextureRegion region;
+        try {
+            region = atlas.add(image);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Failed to pack texture: " + e.getMessage());
+            image.free();
+            variationFinished();
+            return;
+        }
+
+        TextureRegion[][] regions = tileRegions.clone();
+        int type = load.tileType.ordinal();
+        regions[type] = regions[type].clone();
+        regions[type][load.slot] = region;
+        tileRegions = regions;
+
+        addToAverageColor(load.tileType, image);
+        if (arrayImages != null) {
+            arrayImages.add(new PendingImage(load.tileType, load.slot, image));
+        } else {
+            image.free();
+        }
+        variationFinished();
     }
 
-    private void loadVariationsForType(TileType tileType, File[] files) {
-        String prefix = tileType.getTextureName() + "_";
+    private void variationFinished() {
+        revision++;
+        pendingLoads--;
+        if (pendingLoads == 0) {
+            finishLoading();
+        }
+    }
+
+    /**
+     * Close the gaps failed variations left, then build the array texture from everything that loaded.
+     */
+    private void finishLoading() {
+        TextureRegion[][] regions = tileRegions.clone();
+        for (TileType tileType : TileType.values()) {
+            regions[tileType.ordinal()] = Arrays.stream(regions[tileType.ordinal()])
+                    .filter(Objects::nonNull)
+                    .toArray(TextureRegion[]::new);
+            if (regions[tileType.ordinal()].length > 0) {
+                System.out.println("Loaded " + regions[tileType.ordinal()].length + " texture(s) for "
+                        + tileType.getTextureName());
+            }
+        }
+        tileRegions = regions;
 
-        for (File file : files) {
-            String fileName = file.getName();
-            if (!fileName.toLowerCase().startsWith(prefix.toLowerCase())) {
-                continue;
+        if (arrayImages != null) {
+            // Same order as tileRegions, so layer = first layer of the type + variation index
+            arrayImages.sort(Comparator.comparingInt((PendingImage p) -> p.tileType.ordinal())
+                    .thenComparingInt(p -> p.slot));
+            buildTextureArray(arrayImages);
+            for (PendingImage image : arrayImages) {
+                image.image.free();
             }
-            try {
-                Texture texture = TextureLoader.loadTexture(file.getAbsolutePath());
-                tileTextures.get(tileType).add(texture);
-            } catch (Exception e) {
-                System.err.println("Failed to load texture: " + fileName + " - " + e.getMessage());
+            arrayImages = null;
+        }
+        if (atlas != null) {
+            atlas.updateMipmaps();
+            System.out.println("Packed tile textures into " + atlas.getPageCount() + " atlas page(s)");
+        }
+        revision++;
+    }
+
+    /**
+     * Alpha-weighted mean over every pixel of a type's packed variations so far.
+     */
+    private void addToAverageColor(TileType tileType, ImageData image) {
+        long[] sums = colorSums[tileType.ordinal()];
+        ByteBuffer pixels = image.getPixels();
+        int pixelCount = image.getWidth() * image.getHeight();
+        for (int i = 0; i < pixelCount; i++) {
+            int alpha = pixels.get(i * 4 + 3) & 0xFF;
+            sums[0] += (long) (pixels.get(i * 4) & 0xFF) * alpha;
+            sums[1] += (long) (pixels.get(i * 4 + 1) & 0xFF) * alpha;
+            sums[2] += (long) (pixels.get(i * 4 + 2) & 0xFF) * alpha;
+            sums[3] += alpha;
+        }
+        if (sums[3] > 0) {
+            averageColor[tileType.ordinal()] =
+                    (int) (sums[0] / sums[3]) << 16 | (int) (sums[1] / sums[3]) << 8 | (int) (sums[2] / sums[3]);
+        }
+    }
+
+    /**
+     * One layer per packed variation. Layers are square, sized to the largest tile image; smaller
+     * images are scaled up so every variation fills its layer.
+     */
+    private void buildTextureArray(List<PendingImage> pending) {
+        int layerCount = pending.size();
+        int layerSize = 0;
+        for (PendingImage image : pending) {
+            layerSize = Math.max(layerSize, Math.max(image.image.getWidth(), image.image.getHeight()));
+        }
+        if (layerCount == 0) {
+            return;
+        }
+
+        arrayTextureId = GL11.glGenTextures();
+        arrayLayerSize = layerSize;
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, arrayTextureId);
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        GL12.glTexImage3D(GL30.GL_TEXTURE_2D_ARRAY, 0, GL11.GL_RGBA8, layerSize, layerSize, layerCount,
+                0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+
+        int layer = 0;
+        for (TileType tileType : TileType.values()) {
+            arrayFirstLayer[tileType.ordinal()] = layer;
+            for (PendingImage image : pending) {
+                if (image.tileType == tileType) {
+                    uploadLayer(image.image, layer++, layerSize);
+                }
             }
         }
+        // Layers are separate images, so mip levels need no gutter here
+        filter.resolve().apply(GL30.GL_TEXTURE_2D_ARRAY);
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, 0);
+    }
+
+    private static void uploadLayer(ImageData image, int layer, int layerSize) {
+        ByteBuffer pixels = image.getPixels();
+        ByteBuffer scaled = null;
+        if (image.getWidth() != layerSize || image.getHeight() != layerSize) {
+            scaled = MemoryUtil.memAlloc(layerSize * layerSize * 4);
+            STBImageResize.stbir_resize_uint8_linear(pixels, image.getWidth(), image.getHeight(), 0,
+                    scaled, layerSize, layerSize, 0, STBImageResize.STBIR_RGBA);
+            pixels = scaled;
+        }
+        GL12.glTexSubImage3D(GL30.GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, layerSize, layerSize, 1,
+                GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+        if (scaled != null) {
+            MemoryUtil.memFree(scaled);
+        }
+    }
+
+    /**
+     * GL_TEXTURE_2D_ARRAY holding every variation, or 0 if it wasn't built (no GL 3.0, or no textures).
+     */
+    public int getArrayTextureId() {
+        return arrayTextureId;
     }
 
-    public Texture getRandomTexture(TileType type) {
-        List<Texture> variations = tileTextures.get(type);
+    public int getArrayLayerSize() {
+        return arrayLayerSize;
+    }
 
-        if (variations.isEmpty()) {
+    /**
+     * Array layer of the type's first variation; its variations follow in order, {@link #getVariationCount} of them.
+     */
+    public int getArrayFirstLayer(TileType type) {
+        return arrayFirstLayer[type.ordinal()];
+    }
+
+    /**
+     * A random variation of the type, or null if it has none (yet).
+     */
+    public TextureRegion getRandomRegion(TileType type) {
+        TextureRegion[] variations = tileRegions[type.ordinal()];
+
+        if (variations.length == 0) {
             return null;
         }
 
-        return variations.get(random.nextInt(variations.size()));
+        return variations[random.nextInt(variations.length)];
     }
 
-    public Texture getTexture(TileType type, int variationIndex) {
-        List<Texture> variations = tileTextures.get(type);
+    /**
+     * The variation's region, or null if the type has no textures or this variation hasn't arrived yet.
+     */
+    public TextureRegion getRegion(TileType type, int variationIndex) {
+        TextureRegion[] variations = tileRegions[type.ordinal()];
 
-        if (variations.isEmpty()) {
+        if (variations.length == 0) {
             return null;
         }
 
-        return variations.get(variationIndex % variations.size());
+        return variations[variationIndex % variations.length];
+    }
+
+    /**
+     * Mean colour of the type's textures as 0xRRGGBB, or -1 if it has none — what a tile looks like from far away.
+     */
+    public int getAverageColor(TileType type) {
+        return averageColor[type.ordinal()];
     }
 
     public int getVariationCount(TileType type) {
-        return tileTextures.get(type).size();
+        return tileRegions[type.ordinal()].length;
     }
 
     public boolean hasTextures(TileType type) {
-        return !tileTextures.get(type).isEmpty();
+        for (TextureRegion region : tileRegions[type.ordinal()]) {
+            if (region != null) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean hasAnyTextures() {
-        for (List<Texture> textures : tileTextures.values()) {
-            if (!textures.isEmpty()) {
+        for (TileType type : TileType.values()) {
+            if (hasTextures(type)) {
                 return true;
             }
         }
         return false;
     }
 
+    public int getAtlasPageCount() {
+        return atlas == null ? 0 : atlas.getPageCount();
+    }
+
+    /**
+     * Delete the textures; variations still loading are dropped as they arrive.
+     */
     public void cleanup() {
-        for (List<Texture> textures : tileTextures.values()) {
-            for (Texture texture : textures) {
-                texture.cleanup();
+        loadGeneration++;
+        pendingLoads = 0;
+        if (arrayImages != null) {
+            for (PendingImage image : arrayImages) {
+                image.image.free();
+            }
+            arrayImages = null;
+        }
+        if (atlas != null) {
+            atlas.cleanup();
+            atlas = null;
+        }
+        if (arrayTextureId != 0) {
+            GL11.glDeleteTextures(arrayTextureId);
+            arrayTextureId = 0;
+        }
+        tileRegions = emptyRegions();
+        Arrays.fill(averageColor, NO_COLOR);
+        for (long[] sums : colorSums) {
+            Arrays.fill(sums, 0);
+        }
+        revision++;
+    }
+
+    private static final class PendingImage {
+        private final TileType tileType;
+        private final int slot;
+        private final ImageData image;
+
+        private PendingImage(TileType tileType, int slot, ImageData image) {
+            this.tileType = tileType;
+            this.slot = slot;
+            this.image = image;
+        }
+    }
+
+    /**
+     * One variation on its way through the loader, remembering where its region goes.
+     */
+    private final class VariationLoad implements AsyncTextureLoader.Upload {
+        private final TileType tileType;
+        private final int slot;
+        private final String fileName;
+        private final int generation;
+
+        private VariationLoad(TileType tileType, int slot, String fileName, int generation) {
+            this.tileType = tileType;
+            this.slot = slot;
+            this.fileName = fileName;
+            this.generation = generation;
+        }
+
+        @Override
+        public void uploaded(ImageData image) {
+            if (generation != loadGeneration) {
+                image.free();
+                return;
+            }
+            variationLoaded(this, image);
+        }
+
+        @Override
+        public void failed(String path, RuntimeException e) {
+            if (generation != loadGeneration) {
+                return;
             }
+            System.err.println("Failed to load texture: " + fileName + " - " + e.getMessage());
+            variationFinished();
         }
-        tileTextures.clear();
     }
 }
@@ -0,0 +1,280 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.util.Arrays;
+
+/**
+ * Collects a frame's UI quads and glyphs into one vertex stream. Plain quads sample the font's opaque
+ * texel, so rectangles and text share the glyph page and the whole UI is usually a single draw call;
+ * only glyphs on a further page, or a cached panel texture, add one.
+ * <p>
+ * Painter's order is kept through layer indices: everything on a lower layer draws first, and within a
+ * layer quads draw in submission order per texture. Containers raise the layer for their children
+ * with {@link #pushLayer()}, so siblings on one layer are assumed not to overlap. The font's first page,
+ * which holds the solid texel, always takes the first texture slot, so a widget's background sorts
+ * below its own text whichever glyph page that text is on.
+ */
+public final class UIBatch {
+
+    // Staged per quad: x0, y0, x1, y1, u0, v0, u1, v1, r, g, b, a
+    private static final int FLOATS_PER_QUAD = 12;
+    private static final int INITIAL_QUADS = 256;
+    // Texture slot of quads drawn without a texture, used only when no font is loaded
+    private static final int NO_TEXTURE = 0;
+    private static final int MAX_TEXTURES = 256;
+
+    private final VertexBuffer buffer;
+    // How straight-alpha content (rectangles, text) is blended — OFFSCREEN when drawing into a RenderTarget
+    private final BlendMode contentBlend;
+
+    private float[] quads = new float[INITIAL_QUADS * FLOATS_PER_QUAD];
+    // Sort key per quad: layer, then texture slot, then submission index
+    private long[] keys = new long[INITIAL_QUADS];
+    private int quadCount;
+    private int layer;
+    private boolean drawing;
+    private boolean complete;
+
+    // Textures used this frame, indexed by slot; slot 0 is untextured
+    private final Texture[] slotTexture = new Texture[MAX_TEXTURES];
+    private final boolean[] slotGlyphPage = new boolean[MAX_TEXTURES];
+    private int slotCount;
+
+    // Draw runs of the last end(): consecutive sorted quads on the same texture slot
+    private int[] runSlot = new int[4];
+    private int[] runFirstQuad = new int[4];
+    private int[] runQuadCount = new int[4];
+    private int runCount;
+
+    // Glyph placement for the drawText call in progress
+    private float textX;
+    private float textY;
+    private float textR;
+    private float textG;
+    private float textB;
+    private final GlyphCache.PageSink glyphSink = this::addGlyph;
+
+    public UIBatch() {
+        this(BlendMode.ALPHA);
+    }
+
+    /**
+     * @param contentBlend blend mode for rectangles and text; premultiplied textures always use PREMULTIPLIED
+     */
+    public UIBatch(BlendMode contentBlend) {
+        this.buffer = new VertexBuffer(INITIAL_QUADS * 4, GL15.GL_STREAM_DRAW);
+        this.contentBlend = contentBlend;
+    }
+
+    public void begin() {
+        if (drawing) {
+            throw new IllegalStateException("UIBatch.begin() called twice without end()");
+        }
+        drawing = true;
+        complete = true;
+        quadCount = 0;
+        layer = 0;
+        slotCount = NO_TEXTURE + 1;
+        // Slots are numbered in order of first use; fixing this one keeps rectangles under glyphs on later pages
+        BitmapFont font = TextRenderer.getInstance().getFont();
+        if (font != null) {
+            slotFor(font.getPage(0), true);
+        }
+    }
+
+    /**
+     * Sort everything submitted since {@link #begin()} and draw it.
+     */
+    public void end() {
+        if (!drawing) {
+            throw new IllegalStateException("UIBatch.end() called without begin()");
+        }
+        drawing = false;
+        if (quadCount == 0) {
+            runCount = 0;
+            return;
+        }
+        build();
+        draw();
+    }
+
+    /**
+     * Everything submitted until the matching {@link #popLayer()} draws above what came before.
+     */
+    public void pushLayer() {
+        layer++;
+    }
+
+    public void popLayer() {
+        if (layer == 0) {
+            throw new IllegalStateException("UIBatch.popLayer() without pushLayer()");
+        }
+        layer--;
+    }
+
+    public void fillRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        BitmapFont font = TextRenderer.getInstance().getFont();
+        if (font == null) {
+            addQuad(NO_TEXTURE, x, y, x + width, y + height, 0, 0, 0, 0, r, g, b, a);
+            return;
+        }
+        float u = font.getSolidU();
+        float v = font.getSolidV();
+        addQuad(slotFor(font.getPage(0), true), x, y, x + width, y + height, u, v, u, v, r, g, b, a);
+    }
+
+    /**
+     * A quad from a texture whose colour is already multiplied by alpha, e.g. a panel cached in a {@link RenderTarget}.
+     */
+    public void drawPremultiplied(Texture texture, float x, float y, float width, float height,
+                                  float u0, float v0, float u1, float v1) {
+        addQuad(slotFor(texture, false), x, y, x + width, y + height, u0, v0, u1, v1, 1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    /**
+     * Text with its top edge at {@code y}, like {@link TextRenderer#drawText}.
+     */
+    public void drawText(String text, float x, float y, float scale, float r, float g, float b) {
+        BitmapFont font = TextRenderer.getInstance().getFont();
+        if (font == null || text == null || text.isEmpty()) {
+            return;
+        }
+        textX = x;
+        textY = y + font.getLineHeight() * scale;
+        textR = r;
+        textG = g;
+        textB = b;
+        // Glyphs still waiting for the rasterisation budget simply show up on a later frame
+        if (!font.layout(text, scale, glyphSink)) {
+            complete = false;
+        }
+    }
+
+    public void drawTextCentered(String text, float centerX, float y, float scale, float r, float g, float b) {
+        drawText(text, centerX - TextRenderer.getInstance().getTextWidth(text, scale) / 2, y, scale, r, g, b);
+    }
+
+    public void drawTextRight(String text, float rightX, float y, float scale, float r, float g, float b) {
+        drawText(text, rightX - TextRenderer.getInstance().getTextWidth(text, scale), y, scale, r, g, b);
+    }
+
+    /**
+     * False if text submitted since {@link #begin()} left out glyphs that are still waiting to be rasterised.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Draw calls issued by the last {@link #end()}.
+     */
+    public int getDrawCallCount() {
+        return runCount;
+    }
+
+    public void cleanup() {
+        buffer.cleanup();
+    }
+
+    private void addGlyph(int page, float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1) {
+        addQuad(slotFor(TextRenderer.getInstance().getFont().getPage(page), true),
+                textX + x0, textY + y0, textX + x1, textY + y1, u0, v0, u1, v1, textR, textG, textB, 1.0f);
+    }
+
+    private int slotFor(Texture texture, boolean glyphPage) {
+        for (int slot = NO_TEXTURE + 1; slot < slotCount; slot++) {
+            if (slotTexture[slot] == texture) {
+                return slot;
+            }
+        }
+        if (slotCount == MAX_TEXTURES) {
+            throw new IllegalStateException("UIBatch supports at most " + (MAX_TEXTURES - 1) + " textures per frame");
+        }
+        slotTexture[slotCount] = texture;
+        slotGlyphPage[slotCount] = glyphPage;
+        return slotCount++;
+    }
+
+    private void addQuad(int slot, float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1,
+                         float r, float g, float b, float a) {
+        if (!drawing) {
+            throw new IllegalStateException("UIBatch.begin() must be called before drawing");
+        }
+        if (quadCount == keys.length) {
+            keys = Arrays.copyOf(keys, quadCount * 2);
+            quads = Arrays.copyOf(quads, quadCount * 2 * FLOATS_PER_QUAD);
+        }
+        int i = quadCount * FLOATS_PER_QUAD;
+        quads[i] = x0;
+        quads[i + 1] = y0;
+        quads[i + 2] = x1;
+        quads[i + 3] = y1;
+        quads[i + 4] = u0;
+        quads[i + 5] = v0;
+        quads[i + 6] = u1;
+        quads[i + 7] = v1;
+        quads[i + 8] = r;
+        quads[i + 9] = g;
+        quads[i + 10] = b;
+        quads[i + 11] = a;
+        // The low 32 bits keep submission order
+        keys[quadCount] = ((long) layer << 40) | ((long) slot << 32) | quadCount;
+        quadCount++;
+    }
+
+    /**
+     * Write the quads into the vertex buffer in sorted order and cut it into per-texture runs.
+     */
+    private void build() {
+        Arrays.sort(keys, 0, quadCount);
+        buffer.clear();
+        runCount = 0;
+        for (int q = 0; q < quadCount; q++) {
+            int index = (int) keys[q];
+            int slot = (int) ((keys[q] >>> 32) & 0xFF);
+            if (runCount == 0 || runSlot[runCount - 1] != slot) {
+                if (runCount == runSlot.length) {
+                    runSlot = Arrays.copyOf(runSlot, runCount * 2);
+                    runFirstQuad = Arrays.copyOf(runFirstQuad, runCount * 2);
+                    runQuadCount = Arrays.copyOf(runQuadCount, runCount * 2);
+                }
+                runSlot[runCount] = slot;
+                runFirstQuad[runCount] = q;
+                runQuadCount[runCount] = 0;
+                runCount++;
+            }
+            runQuadCount[runCount - 1]++;
+
+            int i = index * FLOATS_PER_QUAD;
+            buffer.quad(quads[i], quads[i + 1], quads[i + 2], quads[i + 3],
+                    quads[i + 4], quads[i + 5], quads[i + 6], quads[i + 7],
+                    quads[i + 8], quads[i + 9], quads[i + 10], quads[i + 11]);
+        }
+        buffer.upload();
+    }
+
+    private void draw() {
+        ShaderProgram glyphShader = TextRenderer.getInstance().getGlyphShader();
+        RenderState state = RenderState.getInstance();
+
+        for (int run = 0; run < runCount; run++) {
+            int slot = runSlot[run];
+            boolean textured = slot != NO_TEXTURE;
+            boolean glyphs = textured && slotGlyphPage[slot];
+            state.setBlendMode(textured && !glyphs ? BlendMode.PREMULTIPLIED : contentBlend);
+            state.setTexture(slotTexture[slot]);
+            if (glyphs && glyphShader != null) {
+                glyphShader.bind();
+            }
+            buffer.draw(GL11.GL_QUADS, runFirstQuad[run] * 4, runQuadCount[run] * 4, textured, true);
+            if (glyphs && glyphShader != null) {
+                glyphShader.unbind();
+            }
+        }
+        // Textures are only referenced for the frame
+        Arrays.fill(slotTexture, 0, slotCount, null);
+        RenderStats.recordBatchFlush();
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.wypeboard.island.escape.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Interleaved vertex data staged in an off-heap buffer and uploaded to a GL buffer object (VBO).
+ * Layout per vertex: x, y, u, v, r, g, b, a.
+ * <p>
+ * Drawn through the fixed-function client arrays, so it uses the same glOrtho projection and
+ * modelview stack as the immediate-mode code around it.
+ */
+public final class VertexBuffer {
+
+    public static final int FLOATS_PER_VERTEX = 8;
+    private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+
+    private final int vboId;
+    private final int usage;
+
+    private FloatBuffer data;
+    private int vertexCount;
+
+    /**
+     * @param initialVertexCapacity vertices to reserve up front, grows when exceeded
+     * @param usage                 GL15.GL_STREAM_DRAW for per-frame data, GL15.GL_STATIC_DRAW for cached meshes
+     */
+    public VertexBuffer(int initialVertexCapacity, int usage) {
+        this.vboId = GL15.glGenBuffers();
+        this.usage = usage;
+        this.data = MemoryUtil.memAllocFloat(Math.max(4, initialVertexCapacity) * FLOATS_PER_VERTEX);
+        this.vertexCount = 0;
+    }
+
+    public void clear() {
+        data.clear();
+        vertexCount = 0;
+    }
+
+    /**
+     * Set the vertex count up front so quads can be written out of order with {@link #setQuad}.
+     */
+    public void resize(int vertexCount) {
+        ensureCapacity(vertexCount);
+        this.vertexCount = vertexCount;
+        data.position(vertexCount * FLOATS_PER_VERTEX);
+    }
+
+    public void vertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+        ensureCapacity(vertexCount + 1);
+        data.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+        vertexCount++;
+    }
+
+    /**
+     * Append an axis-aligned quad, wound the same way as the GL_QUADS code elsewhere.
+     */
+    public void quad(float x0, float y0, float x1, float y1,
+                     float u0, float v0, float u1, float v1,
+                     float r, float g, float b, float a) {
+        vertex(x0, y0, u0, v0, r, g, b, a);
+        vertex(x1, y0, u1, v0, r, g, b, a);
+        vertex(x1, y1, u1, v1, r, g, b, a);
+        vertex(x0, y1, u0, v1, r, g, b, a);
+    }
+
+    /**
+     * Overwrite the quad starting at vertex index {@code quadIndex * 4}. The index must be inside {@link #resize}.
+     */
+    public void setQuad(int quadIndex, float x0, float y0, float x1, float y1,
+                        float u0, float v0, float u1, float v1,
+                        float r, float g, float b, float a) {
+        int i = quadIndex * 4 * FLOATS_PER_VERTEX;
+        i = putVertex(i, x0, y0, u0, v0, r, g, b, a);
+        i = putVertex(i, x1, y0, u1, v0, r, g, b, a);
+        i = putVertex(i, x1, y1, u1, v1, r, g, b, a);
+        putVertex(i, x0, y1, u0, v1, r, g, b, a);
+    }
+
+    private int putVertex(int i, float x, float y, float u, float v, float r, float g, float b, float a) {
+        data.put(i, x).put(i + 1, y).put(i + 2, u).put(i + 3, v)
+                .put(i + 4, r).put(i + 5, g).put(i + 6, b).put(i + 7, a);
+        return i + FLOATS_PER_VERTEX;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Copy the staged vertices into the VBO. The GPU storage is re-specified each call,
+     * which lets the driver orphan the old contents instead of stalling on them.
+     */
+    public void upload() {
+        data.flip();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, data, usage);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        data.limit(data.capacity());
+        data.position(vertexCount * FLOATS_PER_VERTEX);
+    }
+
+    /**
+     * Upload vertices built elsewhere, e.g. on a worker thread, straight into the VBO.
+     * Reads from the buffer's position to its limit and discards anything staged in this VertexBuffer.
+     */
+    public void upload(FloatBuffer vertices) {
+        clear();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertices, usage);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        vertexCount = vertices.remaining() / FLOATS_PER_VERTEX;
+    }
+
+    public void draw(int mode, boolean textured, boolean colored) {
+        draw(mode, 0, vertexCount, textured, colored);
+    }
+
+    /**
+     * Draw a range of the last uploaded vertices. Texture and blend state are left to the caller.
+     */
+    public void draw(int mode, int first, int count, boolean textured, boolean colored) {
+        if (count <= 0) {
+            return;
+        }
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glVertexPointer(2, GL11.GL_FLOAT, STRIDE, 0L);
+        if (textured) {
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL11.glTexCoordPointer(2, GL11.GL_FLOAT, STRIDE, 2L * Float.BYTES);
+        }
+        if (colored) {
+            GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+            GL11.glColorPointer(4, GL11.GL_FLOAT, STRIDE, 4L * Float.BYTES);
+        }
+
+        GL11.glDrawArrays(mode, first, count);
+        RenderStats.recordDrawCall();
+
+        if (colored) {
+            GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        }
+        if (textured) {
+            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        }
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    public void cleanup() {
+        GL15.glDeleteBuffers(vboId);
+        MemoryUtil.memFree(data);
+    }
+
+    private void ensureCapacity(int vertices) {
+        int required = vertices * FLOATS_PER_VERTEX;
+        if (required <= data.capacity()) {
+            return;
+        }
+        int newCapacity = Math.max(required, data.capacity() * 2);
+        int position = data.position();
+        data = MemoryUtil.memRealloc(data, newCapacity);
+        data.limit(newCapacity);
+        data.position(position);
+    }
+}
@@ -7,6 +7,7 @@ import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.system.Configuration;
 import org.lwjgl.system.MemoryUtil;
 
 public class WindowManager {
@@ -18,6 +19,7 @@ public class WindowManager {
     private int height;
     private boolean vSync = true;
     private boolean resizable = true;
+    private boolean headless;
 
     private WindowManager() {
         this.title = Constants.TITLE;
@@ -45,14 +47,46 @@ public class WindowManager {
         showWindow();
     }
 
+    /**
+     * Create a GL context that is never shown, of a fixed size and without v-sync, for benchmarks and
+     * automated runs. With no X11 or Wayland display GLFW's null platform is used with an OSMesa
+     * context, so Mesa's software renderer (llvmpipe) works on a machine without a GPU.
+     */
+    public void initHeadless(int width, int height) {
+        headless = true;
+        vSync = false;
+        resizable = false;
+        this.width = width;
+        this.height = height;
+
+        GLFWErrorCallback.createPrint(System.err).set();
+
+        boolean hasDisplay = System.getenv("DISPLAY") != null || System.getenv("WAYLAND_DISPLAY") != null;
+        if (!hasDisplay) {
+            GLFW.glfwInitHint(GLFW.GLFW_PLATFORM, GLFW.GLFW_PLATFORM_NULL);
+            // LWJGL has to look GL functions up through OSMesa as well, not GLX
+            Configuration.OPENGL_CONTEXT_API.set("OSMesa");
+        }
+        if (!GLFW.glfwInit()) {
+            throw new RuntimeException(hasDisplay ? "Unable to start GLFW" : "Unable to start GLFW's null platform");
+        }
+
+        createWindow();
+        createCallbacks();
+        updateProjection();
+    }
+
     private void createWindow() {
         GLFW.glfwDefaultWindowHints();
         GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_FALSE);
         GLFW.glfwWindowHint(GLFW.GLFW_RESIZABLE, resizable ? GLFW.GLFW_TRUE : GLFW.GLFW_FALSE);
-        GLFW.glfwWindowHint(GLFW.GLFW_MAXIMIZED, GLFW.GLFW_TRUE);
+        GLFW.glfwWindowHint(GLFW.GLFW_MAXIMIZED, headless ? GLFW.GLFW_FALSE : GLFW.GLFW_TRUE);
+        if (headless && GLFW.glfwGetPlatform() == GLFW.GLFW_PLATFORM_NULL) {
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_CREATION_API, GLFW.GLFW_OSMESA_CONTEXT_API);
+        }
 
         // Create the window
-        windowHandle = GLFW.glfwCreateWindow(Constants.GAME_WIDTH, Constants.GAME_HEIGHT, Constants.TITLE, MemoryUtil.NULL, MemoryUtil.NULL);
+        windowHandle = GLFW.glfwCreateWindow(width, height, title, MemoryUtil.NULL, MemoryUtil.NULL);
         if (windowHandle == MemoryUtil.NULL) {
             throw new RuntimeException("Failed to create the glfw window");
         }
@@ -132,6 +166,13 @@ public class WindowManager {
         }
     }
 
+    /**
+     * True after {@link #initHeadless(int, int)}: nothing is shown and no input arrives.
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
     public int getWidth() {
         return width;
     }
@@ -6,6 +6,11 @@ public final class Camera {
     private float y;
     private float zoom;
 
+    // State before the current tick, for drawing in between ticks
+    private float previousX;
+    private float previousY;
+    private float previousZoom;
+
     private final float minZoom;
     private final float maxZoom;
 
@@ -15,6 +20,39 @@ public final class Camera {
         this.zoom = zoom;
         this.minZoom = 0.5f;
         this.maxZoom = 3.0f;
+        beginTick();
+    }
+
+    /**
+     * Remember the current position and zoom as the start of this tick. Call before the tick moves the camera.
+     */
+    public void beginTick() {
+        previousX = x;
+        previousY = y;
+        previousZoom = zoom;
+    }
+
+    /**
+     * Copy position, zoom and the state at {@link #beginTick()} from {@code other}.
+     */
+    public void copyFrom(Camera other) {
+        x = other.x;
+        y = other.y;
+        zoom = other.zoom;
+        previousX = other.previousX;
+        previousY = other.previousY;
+        previousZoom = other.previousZoom;
+    }
+
+    /**
+     * Put {@code view} between this camera's state at {@link #beginTick()} and its current state.
+     *
+     * @param alpha 0 for the start of the tick, 1 for the current state
+     */
+    public void interpolate(Camera view, float alpha) {
+        view.x = previousX + (x - previousX) * alpha;
+        view.y = previousY + (y - previousY) * alpha;
+        view.zoom = previousZoom + (zoom - previousZoom) * alpha;
     }
 
     public void move(float deltaX, float deltaY) {
@@ -0,0 +1,329 @@
+package io.github.wypeboard.island.escape.engine.graphics.world;
+
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
+import io.github.wypeboard.island.escape.engine.graphics.Texture;
+import io.github.wypeboard.island.escape.engine.graphics.TextureRegion;
+import io.github.wypeboard.island.escape.engine.graphics.TileTextureManager;
+import io.github.wypeboard.island.escape.engine.graphics.VertexBuffer;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One static GPU mesh per {@link Grid} chunk. A chunk is only rebuilt when its revision changes.
+ * <p>
+ * Rebuilds happen on a worker thread: the GL thread copies the chunk's tile types into a small
+ * snapshot, the worker turns it into vertex data, and the finished data is handed back through a
+ * queue and uploaded on the next frame. Until then the previous mesh (if any) keeps being drawn.
+ */
+final class ChunkMeshCache {
+
+    private static final int TILES_PER_CHUNK = Grid.CHUNK_SIZE * Grid.CHUNK_SIZE;
+    // How long cleanup waits for a build in progress to hand back or free its vertices
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+    private final Grid grid;
+    private final float tileSize;
+    private final ChunkMesh[] meshes;
+
+    private final ExecutorService worker;
+    private final Queue<BuiltMesh> finished = new ConcurrentLinkedQueue<>();
+
+    // Bumped when the texture manager changes so every chunk is rebuilt with the new UVs
+    private int generation;
+
+    ChunkMeshCache(Grid grid, float tileSize) {
+        this.grid = grid;
+        this.tileSize = tileSize;
+        this.meshes = new ChunkMesh[grid.getChunksX() * grid.getChunksY()];
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chunk-mesh-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void invalidateAll() {
+        generation++;
+    }
+
+    /**
+     * Upload finished meshes, queue rebuilds for stale visible chunks, then draw the visible chunks.
+     * Tile coordinates are inclusive.
+     */
+    void render(int startX, int endX, int startY, int endY, TileTextureManager textureManager) {
+        uploadFinished();
+
+        int startChunkX = startX / Grid.CHUNK_SIZE;
+        int endChunkX = endX / Grid.CHUNK_SIZE;
+        int startChunkY = startY / Grid.CHUNK_SIZE;
+        int endChunkY = endY / Grid.CHUNK_SIZE;
+
+        for (int cy = startChunkY; cy <= endChunkY; cy++) {
+            for (int cx = startChunkX; cx <= endChunkX; cx++) {
+                requestRebuildIfStale(cx, cy, textureManager);
+            }
+        }
+
+        // Vertex-coloured fallback tiles of every chunk first, so texturing is switched on only once
+        RenderState state = RenderState.getInstance();
+        state.setTexture(null);
+        state.setBlendMode(BlendMode.OPAQUE);
+        for (int cy = startChunkY; cy <= endChunkY; cy++) {
+            for (int cx = startChunkX; cx <= endChunkX; cx++) {
+                ChunkMesh mesh = meshes[cy * grid.getChunksX() + cx];
+                if (mesh != null && mesh.buffer != null) {
+                    mesh.buffer.draw(GL11.GL_QUADS, 0, mesh.colouredQuads * 4, false, true);
+                }
+            }
+        }
+
+        state.setBlendMode(BlendMode.ALPHA);
+        for (int cy = startChunkY; cy <= endChunkY; cy++) {
+            for (int cx = startChunkX; cx <= endChunkX; cx++) {
+                ChunkMesh mesh = meshes[cy * grid.getChunksX() + cx];
+                if (mesh == null || mesh.buffer == null) {
+                    continue;
+                }
+                for (PageRange range : mesh.pageRanges) {
+                    state.setTexture(range.page);
+                    mesh.buffer.draw(GL11.GL_QUADS, range.firstQuad * 4, range.quadCount * 4, true, true);
+                }
+            }
+        }
+    }
+
+    void cleanup() {
+        // A running build ignores the interrupt; wait for it, so its vertices are queued before the drain
+        worker.shutdownNow();
+        try {
+            worker.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        BuiltMesh built;
+        while ((built = finished.poll()) != null) {
+            MemoryUtil.memFree(built.vertices);
+        }
+        for (ChunkMesh mesh : meshes) {
+            if (mesh != null && mesh.buffer != null) {
+                mesh.buffer.cleanup();
+                mesh.buffer = null;
+            }
+        }
+    }
+
+    private void requestRebuildIfStale(int chunkX, int chunkY, TileTextureManager textureManager) {
+        int index = chunkY * grid.getChunksX() + chunkX;
+        ChunkMesh mesh = meshes[index];
+        if (mesh == null) {
+            mesh = new ChunkMesh();
+            meshes[index] = mesh;
+        }
+
+        int revision = grid.getChunkRevision(chunkX, chunkY);
+        if (mesh.requestedRevision == revision && mesh.requestedGeneration == generation) {
+            return; // up to date, or a build for this revision is already in flight
+        }
+        mesh.requestedRevision = revision;
+        mesh.requestedGeneration = generation;
+
+        ChunkSnapshot snapshot = snapshot(chunkX, chunkY);
+        worker.execute(() -> handBack(build(index, snapshot, textureManager)));
+    }
+
+    /**
+     * Runs on the worker thread. Once cleanup has started nothing will upload or drain, so free instead.
+     */
+    private void handBack(BuiltMesh built) {
+        if (worker.isShutdown()) {
+            MemoryUtil.memFree(built.vertices);
+        } else {
+            finished.add(built);
+        }
+    }
+
+    /**
+     * Copies the chunk's tiles on the GL thread so the worker never reads the live grid.
+     */
+    private ChunkSnapshot snapshot(int chunkX, int chunkY) {
+        int originX = chunkX * Grid.CHUNK_SIZE;
+        int originY = chunkY * Grid.CHUNK_SIZE;
+        int width = Math.min(Grid.CHUNK_SIZE, grid.getWidth() - originX);
+        int height = Math.min(Grid.CHUNK_SIZE, grid.getHeight() - originY);
+
+        TileType[] types = new TileType[TILES_PER_CHUNK];
+        int[] variations = new int[TILES_PER_CHUNK];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                types[y * Grid.CHUNK_SIZE + x] = grid.typeAt(originX + x, originY + y);
+                variations[y * Grid.CHUNK_SIZE + x] = grid.variationAt(originX + x, originY + y);
+            }
+        }
+        return new ChunkSnapshot(originX, originY, width, height, types, variations);
+    }
+
+    /**
+     * Runs on the worker thread. Produces coloured quads first, then textured quads grouped by atlas page.
+     */
+    private BuiltMesh build(int index, ChunkSnapshot snapshot, TileTextureManager textureManager) {
+        int tileCount = snapshot.width * snapshot.height;
+        TextureRegion[] regions = new TextureRegion[tileCount];
+        int[] pageOfTile = new int[tileCount];
+        List<PageRange> pageRanges = new ArrayList<>();
+        int colouredQuads = 0;
+
+        for (int i = 0; i < tileCount; i++) {
+            int x = i % snapshot.width;
+            int y = i / snapshot.width;
+            int tileIndex = y * Grid.CHUNK_SIZE + x;
+            TextureRegion region = textureManager == null ? null
+                    : textureManager.getRegion(snapshot.types[tileIndex], snapshot.variations[tileIndex]);
+            regions[i] = region;
+            if (region == null) {
+                colouredQuads++;
+            } else {
+                pageOfTile[i] = rangeIndexFor(pageRanges, region.getTexture());
+                pageRanges.get(pageOfTile[i]).quadCount++;
+            }
+        }
+
+        int next = colouredQuads;
+        for (PageRange range : pageRanges) {
+            range.firstQuad = next;
+            next += range.quadCount;
+        }
+
+        FloatBuffer vertices = MemoryUtil.memAllocFloat(tileCount * 4 * VertexBuffer.FLOATS_PER_VERTEX);
+        int colouredCursor = 0;
+        int[] pageCursors = new int[pageRanges.size()];
+        for (int p = 0; p < pageCursors.length; p++) {
+            pageCursors[p] = pageRanges.get(p).firstQuad;
+        }
+
+        for (int i = 0; i < tileCount; i++) {
+            int x = i % snapshot.width;
+            int y = i / snapshot.width;
+            float x0 = (snapshot.originX + x) * tileSize;
+            float y0 = (snapshot.originY + y) * tileSize;
+            float x1 = x0 + tileSize;
+            float y1 = y0 + tileSize;
+
+            TextureRegion region = regions[i];
+            if (region == null) {
+                TileType type = snapshot.types[y * Grid.CHUNK_SIZE + x];
+                putQuad(vertices, colouredCursor++, x0, y0, x1, y1, 0, 0, 0, 0,
+                        type.getFallbackR(), type.getFallbackG(), type.getFallbackB());
+            } else {
+                putQuad(vertices, pageCursors[pageOfTile[i]]++, x0, y0, x1, y1,
+                        region.getU0(), region.getV0(), region.getU1(), region.getV1(), 1.0f, 1.0f, 1.0f);
+            }
+        }
+
+        return new BuiltMesh(index, colouredQuads, pageRanges, vertices);
+    }
+
+    private static int rangeIndexFor(List<PageRange> ranges, Texture page) {
+        for (int i = 0; i < ranges.size(); i++) {
+            if (ranges.get(i).page == page) {
+                return i;
+            }
+        }
+        ranges.add(new PageRange(page));
+        return ranges.size() - 1;
+    }
+
+    private static void putQuad(FloatBuffer vertices, int quadIndex, float x0, float y0, float x1, float y1,
+                                float u0, float v0, float u1, float v1, float r, float g, float b) {
+        int i = quadIndex * 4 * VertexBuffer.FLOATS_PER_VERTEX;
+        i = putVertex(vertices, i, x0, y0, u0, v0, r, g, b);
+        i = putVertex(vertices, i, x1, y0, u1, v0, r, g, b);
+        i = putVertex(vertices, i, x1, y1, u1, v1, r, g, b);
+        putVertex(vertices, i, x0, y1, u0, v1, r, g, b);
+    }
+
+    private static int putVertex(FloatBuffer vertices, int i, float x, float y, float u, float v,
+                                 float r, float g, float b) {
+        vertices.put(i, x).put(i + 1, y).put(i + 2, u).put(i + 3, v)
+                .put(i + 4, r).put(i + 5, g).put(i + 6, b).put(i + 7, 1.0f);
+        return i + VertexBuffer.FLOATS_PER_VERTEX;
+    }
+
+    private void uploadFinished() {
+        BuiltMesh built;
+        while ((built = finished.poll()) != null) {
+            ChunkMesh mesh = meshes[built.index];
+            if (mesh.buffer == null) {
+                mesh.buffer = new VertexBuffer(0, GL15.GL_STATIC_DRAW);
+            }
+            mesh.buffer.upload(built.vertices);
+            mesh.colouredQuads = built.colouredQuads;
+            mesh.pageRanges = built.pageRanges;
+            MemoryUtil.memFree(built.vertices);
+        }
+    }
+
+    /**
+     * GL-thread state for one chunk.
+     */
+    private static final class ChunkMesh {
+        private VertexBuffer buffer;
+        private int colouredQuads;
+        private List<PageRange> pageRanges = List.of();
+        // -1 so a fresh chunk (revision 0) is always built once
+        private int requestedRevision = -1;
+        private int requestedGeneration = -1;
+    }
+
+    private static final class PageRange {
+        private final Texture page;
+        private int firstQuad;
+        private int quadCount;
+
+        private PageRange(Texture page) {
+            this.page = page;
+        }
+    }
+
+    private static final class ChunkSnapshot {
+        private final int originX;
+        private final int originY;
+        private final int width;
+        private final int height;
+        private final TileType[] types;
+        private final int[] variations;
+
+        private ChunkSnapshot(int originX, int originY, int width, int height, TileType[] types, int[] variations) {
+            this.originX = originX;
+            this.originY = originY;
+            this.width = width;
+            this.height = height;
+            this.types = types;
+            this.variations = variations;
+        }
+    }
+
+    private static final class BuiltMesh {
+        private final int index;
+        private final int colouredQuads;
+        private final List<PageRange> pageRanges;
+        private final FloatBuffer vertices;
+
+        private BuiltMesh(int index, int colouredQuads, List<PageRange> pageRanges, FloatBuffer vertices) {
+            this.index = index;
+            this.colouredQuads = colouredQuads;
+            this.pageRanges = pageRanges;
+            this.vertices = vertices;
+        }
+    }
+}
@@ -1,36 +1,123 @@
 package io.github.wypeboard.island.escape.engine.graphics.world;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Tile types and texture variations packed as one byte each in flat row-major arrays, so a 4096x4096
+ * world takes 32 MB instead of a heap object per tile. Hot paths read it through {@link #typeAt},
+ * {@link #variationAt} and {@link #isWalkable}, which neither box nor allocate; {@link Tile} objects
+ * are only views over a cell, created when {@link #getTile} is called.
+ * <p>
+ * typeAt and variationAt skip the bounds check: an x outside the grid reads a cell in a neighbouring
+ * row rather than throwing, so callers must clamp first (checked by an assert when enabled).
+ */
 public final class Grid {
 
+    /**
+     * Tiles are grouped into CHUNK_SIZE x CHUNK_SIZE chunks. Renderers cache one mesh per chunk
+     * and only rebuild it when the chunk's revision changes.
+     */
+    public static final int CHUNK_SIZE = 32;
+
+    // Indexed by the ordinals stored in types
+    private static final TileType[] TYPES = TileType.values();
+    private static final boolean[] WALKABLE = new boolean[TYPES.length];
+
+    static {
+        if (TYPES.length > 256) {
+            throw new IllegalStateException("Tile types no longer fit a byte: " + TYPES.length);
+        }
+        for (TileType type : TileType.getLandTiles()) {
+            WALKABLE[type.ordinal()] = true;
+        }
+    }
+
     private final int width;
     private final int height;
-    private final Tile[][] tiles;
+    // Tile type ordinal and texture variation at y * width + x
+    private final byte[] types;
+    private final byte[] variations;
+
+    private final int chunksX;
+    private final int chunksY;
+    private final int[] chunkRevisions;
+
+    private final List<TileChangeListener> changeListeners = new ArrayList<>();
 
     public Grid(int width, int height) {
         this.width = width;
         this.height = height;
-        this.tiles = new Tile[width][height];
+        this.types = new byte[width * height];
+        this.variations = new byte[width * height];
+
+        this.chunksX = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunksY = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunkRevisions = new int[chunksX * chunksY];
 
         // Initialize all tiles
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                this.tiles[x][y] = new Tile(x, y, TileType.GRASS);
-            }
-        }
+        Arrays.fill(types, (byte) TileType.GRASS.ordinal());
     }
 
+    /**
+     * A view of the tile at the given cell; reads and writes go straight to the grid. Allocates, so
+     * loops over many cells should use {@link #typeAt} and {@link #variationAt} instead.
+     */
     public Optional<Tile> getTile(int x, int y) {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             return Optional.empty();
         }
-        return Optional.of(tiles[x][y]);
+        return Optional.of(new Tile(x, y, this));
+    }
+
+    /**
+     * Unchecked — for callers that already clamp to the grid.
+     */
+    public TileType typeAt(int x, int y) {
+        assert isValidPosition(x, y) : x + ", " + y;
+        return TYPES[types[y * width + x] & 0xFF];
+    }
+
+    /**
+     * Unchecked, like {@link #typeAt}.
+     */
+    public int variationAt(int x, int y) {
+        assert isValidPosition(x, y) : x + ", " + y;
+        return variations[y * width + x] & 0xFF;
+    }
+
+    /**
+     * True for land tiles; off-grid is not walkable.
+     */
+    public boolean isWalkable(int x, int y) {
+        return isValidPosition(x, y) && WALKABLE[types[y * width + x] & 0xFF];
     }
 
     public void setTile(int x, int y, TileType tileType) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            tiles[x][y].setTileType(tileType);
+            int i = y * width + x;
+            if (types[i] != (byte) tileType.ordinal()) {
+                types[i] = (byte) tileType.ordinal();
+                markChunkDirty(x, y);
+            }
+        }
+    }
+
+    /**
+     * @param variation 0 to 255; reduced modulo the type's variation count when drawn
+     */
+    public void setTextureVariation(int x, int y, int variation) {
+        if (variation < 0 || variation > 255) {
+            throw new IllegalArgumentException("Texture variation out of range: " + variation);
+        }
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            int i = y * width + x;
+            if (variations[i] != (byte) variation) {
+                variations[i] = (byte) variation;
+                markChunkDirty(x, y);
+            }
         }
     }
 
@@ -45,4 +132,34 @@ public final class Grid {
     public boolean isValidPosition(int x, int y) {
         return x >= 0 && x < width && y >= 0 && y < height;
     }
+
+    public int getChunksX() {
+        return chunksX;
+    }
+
+    public int getChunksY() {
+        return chunksY;
+    }
+
+    /**
+     * Bumped every time a tile inside the chunk changes. Compare against a cached value to detect stale meshes.
+     */
+    public int getChunkRevision(int chunkX, int chunkY) {
+        return chunkRevisions[chunkY * chunksX + chunkX];
+    }
+
+    public void addTileChangeListener(TileChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeTileChangeListener(TileChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void markChunkDirty(int x, int y) {
+        chunkRevisions[(y / CHUNK_SIZE) * chunksX + (x / CHUNK_SIZE)]++;
+        for (int i = 0; i < changeListeners.size(); i++) {
+            changeListeners.get(i).tileChanged(x, y);
+        }
+    }
 }
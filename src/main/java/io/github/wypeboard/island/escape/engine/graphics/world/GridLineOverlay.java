@@ -0,0 +1,74 @@
+package io.github.wypeboard.island.escape.engine.graphics.world;
+
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
+import io.github.wypeboard.island.escape.engine.graphics.VertexBuffer;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * Tile grid lines kept in a static vertex buffer. The lines only depend on the visible tile range,
+ * so the mesh is rebuilt when the camera crosses a tile boundary and simply redrawn otherwise.
+ */
+final class GridLineOverlay {
+
+    private final float tileSize;
+    private final VertexBuffer lines;
+
+    // Range the current mesh was built for; -1 forces the first build
+    private int builtStartX = -1;
+    private int builtEndX = -1;
+    private int builtStartY = -1;
+    private int builtEndY = -1;
+
+    GridLineOverlay(float tileSize) {
+        this.tileSize = tileSize;
+        this.lines = new VertexBuffer(256, GL15.GL_STATIC_DRAW);
+    }
+
+    /**
+     * Draw lines around every tile in the inclusive range, rebuilding the mesh only if the range changed.
+     */
+    void render(int startX, int endX, int startY, int endY) {
+        if (startX != builtStartX || endX != builtEndX || startY != builtStartY || endY != builtEndY) {
+            rebuild(startX, endX, startY, endY);
+        }
+
+        RenderState state = RenderState.getInstance();
+        state.setTexture(null);
+        state.setBlendMode(BlendMode.OPAQUE);
+        GL11.glColor4f(0.0f, 0.0f, 0.0f, 0.3f);
+        GL11.glLineWidth(1.0f);
+        lines.draw(GL11.GL_LINES, false, false);
+    }
+
+    void cleanup() {
+        lines.cleanup();
+    }
+
+    private void rebuild(int startX, int endX, int startY, int endY) {
+        lines.clear();
+
+        float top = startY * tileSize;
+        float bottom = (endY + 1) * tileSize;
+        for (int x = startX; x <= endX + 1; x++) {
+            float xPos = x * tileSize;
+            lines.vertex(xPos, top, 0, 0, 0, 0, 0, 0);
+            lines.vertex(xPos, bottom, 0, 0, 0, 0, 0, 0);
+        }
+
+        float left = startX * tileSize;
+        float right = (endX + 1) * tileSize;
+        for (int y = startY; y <= endY + 1; y++) {
+            float yPos = y * tileSize;
+            lines.vertex(left, yPos, 0, 0, 0, 0, 0, 0);
+            lines.vertex(right, yPos, 0, 0, 0, 0, 0, 0);
+        }
+
+        lines.upload();
+        builtStartX = startX;
+        builtEndX = endX;
+        builtStartY = startY;
+        builtEndY = endY;
+    }
+}
@@ -0,0 +1,240 @@
+package io.github.wypeboard.island.escape.engine.graphics.world;
+
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
+import io.github.wypeboard.island.escape.engine.graphics.Texture;
+import io.github.wypeboard.island.escape.engine.graphics.TileTextureManager;
+import io.github.wypeboard.island.escape.engine.graphics.VertexBuffer;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The whole grid reduced to a small RGBA texture: one texel per square block of tiles, holding the
+ * blocks' average tile colour. Tile colours come from the texture manager's average texture colours,
+ * or from the tile types' fallback colours. The block size is the smallest that keeps the texture
+ * within {@code maxSize}, so worlds of any size fit.
+ * <p>
+ * A CPU copy of the texels is kept; tile edits recompute their block and grow a dirty rectangle that
+ * {@link #update()} uploads with one glTexSubImage2D. Used by GridRenderer when zoomed out and by
+ * the minimap.
+ */
+public final class GridOverview implements TileChangeListener {
+
+    private static final int BYTES_PER_TEXEL = 4;
+
+    private final Grid grid;
+    private final int blockSize;
+    private final int width;
+    private final int height;
+    private final ByteBuffer texels;
+    private final Texture texture;
+    // Created on the first render() — the minimap only ever needs the texture
+    private VertexBuffer quad;
+
+    // Per tile type, resolved from the texture manager
+    private final int[] typeR = new int[TileType.values().length];
+    private final int[] typeG = new int[TileType.values().length];
+    private final int[] typeB = new int[TileType.values().length];
+
+    // Texels changed since the last upload, inclusive; dirtyMinX > dirtyMaxX when clean
+    private int dirtyMinX;
+    private int dirtyMinY;
+    private int dirtyMaxX;
+    private int dirtyMaxY;
+    private int revision;
+
+    /**
+     * @param maxSize        largest texture width or height; blocks grow until the grid fits
+     * @param textureManager source of average tile colours, or null to use the fallback colours
+     */
+    public GridOverview(Grid grid, int maxSize, TileTextureManager textureManager) {
+        this.grid = grid;
+        int largestSide = Math.max(grid.getWidth(), grid.getHeight());
+        this.blockSize = Math.max(1, (largestSide + maxSize - 1) / maxSize);
+        this.width = (grid.getWidth() + blockSize - 1) / blockSize;
+        this.height = (grid.getHeight() + blockSize - 1) / blockSize;
+        this.texels = MemoryUtil.memAlloc(width * height * BYTES_PER_TEXEL);
+
+        int textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        // Smooth when a texel is smaller than a pixel, blocky like the tiles themselves when larger
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height,
+                0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        RenderState.getInstance().invalidateTexture();
+        this.texture = new Texture(textureId, width, height);
+
+        setTextureManager(textureManager);
+        grid.addTileChangeListener(this);
+    }
+
+    /**
+     * Re-resolve the per-type colours and rebuild every texel. {@code textureManager} may be null.
+     */
+    public void setTextureManager(TileTextureManager textureManager) {
+        for (TileType type : TileType.values()) {
+            int color = textureManager == null ? -1 : textureManager.getAverageColor(type);
+            if (color == -1) {
+                typeR[type.ordinal()] = Math.round(type.getFallbackR() * 255);
+                typeG[type.ordinal()] = Math.round(type.getFallbackG() * 255);
+                typeB[type.ordinal()] = Math.round(type.getFallbackB() * 255);
+            } else {
+                typeR[type.ordinal()] = (color >> 16) & 0xFF;
+                typeG[type.ordinal()] = (color >> 8) & 0xFF;
+                typeB[type.ordinal()] = color & 0xFF;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                putTexel(x, y);
+            }
+        }
+        dirtyMinX = 0;
+        dirtyMinY = 0;
+        dirtyMaxX = width - 1;
+        dirtyMaxY = height - 1;
+        revision++;
+    }
+
+    @Override
+    public void tileChanged(int x, int y) {
+        int texelX = x / blockSize;
+        int texelY = y / blockSize;
+        putTexel(texelX, texelY);
+        if (dirtyMinX > dirtyMaxX) {
+            dirtyMinX = texelX;
+            dirtyMaxX = texelX;
+            dirtyMinY = texelY;
+            dirtyMaxY = texelY;
+        } else {
+            dirtyMinX = Math.min(dirtyMinX, texelX);
+            dirtyMaxX = Math.max(dirtyMaxX, texelX);
+            dirtyMinY = Math.min(dirtyMinY, texelY);
+            dirtyMaxY = Math.max(dirtyMaxY, texelY);
+        }
+        revision++;
+    }
+
+    /**
+     * Upload the texels changed since the last call, once per frame before the texture is drawn.
+     * Leaves the texture bound through RenderState.
+     */
+    public void update() {
+        RenderState.getInstance().setTexture(texture);
+        if (dirtyMinX > dirtyMaxX) {
+            return;
+        }
+        // Straight out of the full-size CPU copy
+        GL11.glPixelStorei(GL11.GL_UNPACK_ROW_LENGTH, width);
+        GL11.glPixelStorei(GL11.GL_UNPACK_SKIP_PIXELS, dirtyMinX);
+        GL11.glPixelStorei(GL11.GL_UNPACK_SKIP_ROWS, dirtyMinY);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, dirtyMinX, dirtyMinY,
+                dirtyMaxX - dirtyMinX + 1, dirtyMaxY - dirtyMinY + 1,
+                GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, texels);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ROW_LENGTH, 0);
+        GL11.glPixelStorei(GL11.GL_UNPACK_SKIP_PIXELS, 0);
+        GL11.glPixelStorei(GL11.GL_UNPACK_SKIP_ROWS, 0);
+
+        dirtyMinX = 0;
+        dirtyMaxX = -1;
+    }
+
+    /**
+     * Bumped whenever a texel changes.
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * Tiles per texel along each axis.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * U of the grid's right edge — the last column of texels may cover tiles past it.
+     */
+    public float getMaxU() {
+        return (float) grid.getWidth() / (width * blockSize);
+    }
+
+    /**
+     * V of the grid's bottom edge.
+     */
+    public float getMaxV() {
+        return (float) grid.getHeight() / (height * blockSize);
+    }
+
+    /**
+     * Draw the given tile range (inclusive) as one quad with the grid's modelview applied.
+     *
+     * @param alpha opacity, for cross-fading with the full-detail tiles
+     */
+    void render(int startX, int endX, int startY, int endY, float tileSize, float alpha) {
+        if (quad == null) {
+            quad = new VertexBuffer(4, GL15.GL_STREAM_DRAW);
+        }
+        update();
+        RenderState.getInstance().setBlendMode(alpha < 1.0f ? BlendMode.ALPHA : BlendMode.OPAQUE);
+
+        float tilesAcross = width * blockSize;
+        float tilesDown = height * blockSize;
+        quad.clear();
+        quad.quad(startX * tileSize, startY * tileSize, (endX + 1) * tileSize, (endY + 1) * tileSize,
+                startX / tilesAcross, startY / tilesDown, (endX + 1) / tilesAcross, (endY + 1) / tilesDown,
+                1.0f, 1.0f, 1.0f, alpha);
+        quad.upload();
+        quad.draw(GL11.GL_QUADS, true, true);
+    }
+
+    public void cleanup() {
+        grid.removeTileChangeListener(this);
+        texture.cleanup();
+        if (quad != null) {
+            quad.cleanup();
+            quad = null;
+        }
+        MemoryUtil.memFree(texels);
+    }
+
+    /**
+     * Average the colours of the tiles in one block (clipped at the grid's edge) into its texel.
+     */
+    private void putTexel(int texelX, int texelY) {
+        int firstX = texelX * blockSize;
+        int firstY = texelY * blockSize;
+        int lastX = Math.min(firstX + blockSize, grid.getWidth());
+        int lastY = Math.min(firstY + blockSize, grid.getHeight());
+        int sumR = 0;
+        int sumG = 0;
+        int sumB = 0;
+        for (int y = firstY; y < lastY; y++) {
+            for (int x = firstX; x < lastX; x++) {
+                int type = grid.typeAt(x, y).ordinal();
+                sumR += typeR[type];
+                sumG += typeG[type];
+                sumB += typeB[type];
+            }
+        }
+        int count = (lastX - firstX) * (lastY - firstY);
+        int i = (texelY * width + texelX) * BYTES_PER_TEXEL;
+        texels.put(i, (byte) (sumR / count));
+        texels.put(i + 1, (byte) (sumG / count));
+        texels.put(i + 2, (byte) (sumB / count));
+        texels.put(i + 3, (byte) 0xFF);
+    }
+}
@@ -1,16 +1,63 @@
 package io.github.wypeboard.island.escape.engine.graphics.world;
 
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
 import io.github.wypeboard.island.escape.engine.graphics.Texture;
+import io.github.wypeboard.island.escape.engine.graphics.TextureRegion;
 import io.github.wypeboard.island.escape.engine.graphics.TileTextureManager;
+import io.github.wypeboard.island.escape.engine.graphics.VertexBuffer;
+import io.github.wypeboard.island.escape.engine.profiling.Profiler;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public final class GridRenderer {
 
+    public enum RenderMode {
+        IMMEDIATE,  // glBegin/glEnd per tile
+        BATCHED,    // all visible tiles in one VBO, one draw call per atlas page
+        CHUNKED,    // cached static mesh per grid chunk, rebuilt only when a tile in it changes
+        INSTANCED   // tile types in an integer texture, one instanced draw call for the whole view (GL 3.3)
+    }
+
+    // Enough for a 1080p screen at 1.0x zoom; the buffer grows if the view is larger
+    private static final int INITIAL_BATCH_TILES = 4096;
+    // Below this zoom the overview fades in across the blend band, replacing the tiles entirely past it
+    private static final float DEFAULT_OVERVIEW_ZOOM = 0.6f;
+    private static final float DEFAULT_OVERVIEW_BLEND_BAND = 0.1f;
+    // One overview texel per tile up to this many tiles across, one per 2x2 block (and so on) beyond
+    private static final int OVERVIEW_MAX_SIZE = 4096;
+
+    private static final int PROFILE_RENDER = Profiler.scope("GridRenderer.renderer");
+
     private final Grid grid;
     private final float tileSize;
     private Optional<TileTextureManager> textureManager;
+    // Manager revision the caches below were built against; textures keep arriving while loading
+    private int textureRevision;
+
+    private RenderMode renderMode = RenderMode.IMMEDIATE;
+    private VertexBuffer tileBuffer;
+    private ChunkMeshCache chunkMeshes;
+    private InstancedTileRenderer instancedTiles;
+
+    // Level of detail: one texel per tile once zoomed out far enough, created on first use
+    private GridOverview overview;
+    private float overviewZoom = DEFAULT_OVERVIEW_ZOOM;
+    private float overviewBlendBand = DEFAULT_OVERVIEW_BLEND_BAND;
+
+    // Debug overlay, created on first use so it costs nothing while switched off
+    private boolean gridLinesVisible = true;
+    private GridLineOverlay gridLines;
+
+    // Visible tiles bucketed by atlas page — reused every frame so batching doesn't allocate
+    private final Map<Texture, TextureBatch> textureBatches = new IdentityHashMap<>();
+    private final List<TextureBatch> activeBatches = new ArrayList<>();
 
     public GridRenderer(Grid grid, float tileSize) {
         this.grid = grid;
@@ -20,9 +67,61 @@ public final class GridRenderer {
 
     public void setTextureManager(TileTextureManager textureManager) {
         this.textureManager = Optional.of(textureManager);
+        this.textureRevision = textureManager.getRevision();
+        if (chunkMeshes != null) {
+            chunkMeshes.invalidateAll();
+        }
+        if (instancedTiles != null) {
+            instancedTiles.setTextureManager(textureManager);
+        }
+        if (overview != null) {
+            overview.setTextureManager(textureManager);
+        }
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    public void setRenderMode(RenderMode renderMode) {
+        this.renderMode = renderMode;
+    }
+
+    public boolean isGridLinesVisible() {
+        return gridLinesVisible;
+    }
+
+    public void setGridLinesVisible(boolean gridLinesVisible) {
+        this.gridLinesVisible = gridLinesVisible;
+    }
+
+    public float getOverviewZoom() {
+        return overviewZoom;
+    }
+
+    /**
+     * Zoom below which the tiles start fading into the overview; 0 switches the overview off.
+     */
+    public void setOverviewZoom(float overviewZoom) {
+        this.overviewZoom = overviewZoom;
+    }
+
+    public float getOverviewBlendBand() {
+        return overviewBlendBand;
+    }
+
+    /**
+     * Zoom range over which tiles and overview cross-fade; 0 switches over abruptly.
+     */
+    public void setOverviewBlendBand(float overviewBlendBand) {
+        this.overviewBlendBand = Math.max(0, overviewBlendBand);
     }
 
     public void renderer(Camera camera, int viewportWidth, int viewportHeight) {
+        Profiler.begin(PROFILE_RENDER);
+        if (textureManager.isPresent() && textureManager.get().getRevision() != textureRevision) {
+            setTextureManager(textureManager.get());
+        }
         GL11.glPushMatrix();
 
         float zoom = camera.getZoom();
@@ -41,74 +140,218 @@ public final class GridRenderer {
         int endY = Math.min(grid.getHeight() - 1, (int) (worldBottom / tileSize) + 1);
 
         boolean useTextures = textureManager.map(TileTextureManager::hasAnyTextures).orElse(false);
+        float overviewAlpha = overviewAlpha(zoom);
+
+        if (overviewAlpha < 1.0f) {
+            switch (renderMode) {
+                case BATCHED -> renderBatched(startX, endX, startY, endY, useTextures);
+                case CHUNKED -> renderChunked(startX, endX, startY, endY, useTextures);
+                case INSTANCED -> renderInstanced(startX, endX, startY, endY, useTextures,
+                        camera, viewportWidth, viewportHeight);
+                default -> renderImmediate(startX, endX, startY, endY, useTextures);
+            }
+        }
+        if (overviewAlpha > 0.0f) {
+            if (overview == null) {
+                overview = new GridOverview(grid, OVERVIEW_MAX_SIZE, textureManager.orElse(null));
+            }
+            overview.render(startX, endX, startY, endY, tileSize, overviewAlpha);
+        }
+
+        // Lines cost as much as the tiles they outline, so they go once the overview has taken over
+        if (gridLinesVisible && overviewAlpha < 1.0f) {
+            if (gridLines == null) {
+                gridLines = new GridLineOverlay(tileSize);
+            }
+            gridLines.render(startX, endX, startY, endY);
+        }
+
+        GL11.glPopMatrix();
+        Profiler.end(PROFILE_RENDER);
+    }
+
+    private void renderImmediate(int startX, int endX, int startY, int endY, boolean useTextures) {
+        // Neighbouring tiles on the same atlas page skip the rebind — RenderState drops redundant binds
+        RenderState state = RenderState.getInstance();
+        state.setTexture(null);
+        state.setBlendMode(useTextures ? BlendMode.ALPHA : BlendMode.OPAQUE);
+
+        // Row by row, following the grid's storage order
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                if (useTextures) {
+                    renderTileTextured(x, y);
+                } else {
+                    renderTileColored(x, y, grid.typeAt(x, y));
+                }
+            }
+        }
+    }
 
-        if (useTextures) {
-            GL11.glEnable(GL11.GL_TEXTURE_2D);
-            GL11.glEnable(GL11.GL_BLEND);
-            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    /**
+     * Builds every visible tile into one vertex buffer, grouped by atlas page, and draws each group
+     * with a single call. Tiles without a texture go first as vertex-coloured quads.
+     */
+    private void renderBatched(int startX, int endX, int startY, int endY, boolean useTextures) {
+        if (tileBuffer == null) {
+            tileBuffer = new VertexBuffer(INITIAL_BATCH_TILES * 4, GL15.GL_STREAM_DRAW);
         }
+        TileTextureManager manager = useTextures ? textureManager.get() : null;
 
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y < endY; y++) {
-                Optional<Tile> optionalTile = grid.getTile(x, y);
-                optionalTile.ifPresent(tile -> {
-                    if (useTextures) {
-                        renderTileTextured(tile);
-                    } else {
-                        renderTileColored(tile);
+        // Pass 1: count tiles per page so each group gets a contiguous range
+        for (TextureBatch batch : activeBatches) {
+            batch.count = 0;
+        }
+        activeBatches.clear();
+        int colouredCount = 0;
+
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                TextureRegion region = regionFor(manager, x, y);
+                if (region == null) {
+                    colouredCount++;
+                } else {
+                    TextureBatch batch = textureBatches.computeIfAbsent(region.getTexture(), TextureBatch::new);
+                    if (batch.count == 0) {
+                        activeBatches.add(batch);
                     }
-                });
+                    batch.count++;
+                }
             }
         }
 
-        if (useTextures) {
-            GL11.glDisable(GL11.GL_BLEND);
-            GL11.glDisable(GL11.GL_TEXTURE_2D);
+        int quadCount = colouredCount;
+        for (TextureBatch batch : activeBatches) {
+            batch.first = quadCount;
+            batch.cursor = quadCount;
+            quadCount += batch.count;
+        }
+        tileBuffer.resize(quadCount * 4);
+
+        // Pass 2: write each quad into its group's range
+        int colouredCursor = 0;
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                TextureRegion region = regionFor(manager, x, y);
+
+                float x0 = x * tileSize;
+                float y0 = y * tileSize;
+                float x1 = x0 + tileSize;
+                float y1 = y0 + tileSize;
+
+                if (region == null) {
+                    TileType type = grid.typeAt(x, y);
+                    tileBuffer.setQuad(colouredCursor++, x0, y0, x1, y1, 0, 0, 0, 0,
+                            type.getFallbackR(), type.getFallbackG(), type.getFallbackB(), 1.0f);
+                } else {
+                    TextureBatch batch = textureBatches.get(region.getTexture());
+                    tileBuffer.setQuad(batch.cursor++, x0, y0, x1, y1,
+                            region.getU0(), region.getV0(), region.getU1(), region.getV1(),
+                            1.0f, 1.0f, 1.0f, 1.0f);
+                }
+            }
         }
 
-        renderGridLines(startX, endX, startY, endY);
+        tileBuffer.upload();
 
-        GL11.glPopMatrix();
+        RenderState state = RenderState.getInstance();
+        state.setTexture(null);
+        state.setBlendMode(BlendMode.OPAQUE);
+        tileBuffer.draw(GL11.GL_QUADS, 0, colouredCount * 4, false, true);
+
+        if (!activeBatches.isEmpty()) {
+            state.setBlendMode(BlendMode.ALPHA);
+            for (TextureBatch batch : activeBatches) {
+                state.setTexture(batch.texture);
+                tileBuffer.draw(GL11.GL_QUADS, batch.first * 4, batch.count * 4, true, true);
+            }
+        }
+    }
+
+    private void renderChunked(int startX, int endX, int startY, int endY, boolean useTextures) {
+        if (chunkMeshes == null) {
+            chunkMeshes = new ChunkMeshCache(grid, tileSize);
+        }
+        chunkMeshes.render(startX, endX, startY, endY, useTextures ? textureManager.get() : null);
+    }
+
+    /**
+     * 0 above the overview zoom, rising to 1 across the blend band below it.
+     */
+    private float overviewAlpha(float zoom) {
+        if (zoom >= overviewZoom) {
+            return 0.0f;
+        }
+        if (overviewBlendBand <= 0) {
+            return 1.0f;
+        }
+        return Math.min(1.0f, (overviewZoom - zoom) / overviewBlendBand);
     }
 
-    private void renderTileTextured(Tile tile) {
+    /**
+     * Positions tiles from uniforms, so the modelview set up in {@link #renderer} doesn't apply.
+     * Falls back to {@link RenderMode#CHUNKED} for good where GL 3.3 is missing.
+     */
+    private void renderInstanced(int startX, int endX, int startY, int endY, boolean useTextures,
+                                 Camera camera, int viewportWidth, int viewportHeight) {
+        if (instancedTiles == null) {
+            if (!InstancedTileRenderer.isSupported()) {
+                System.err.println("Instanced tile rendering needs OpenGL 3.3, falling back to " + RenderMode.CHUNKED);
+                renderMode = RenderMode.CHUNKED;
+                renderChunked(startX, endX, startY, endY, useTextures);
+                return;
+            }
+            instancedTiles = new InstancedTileRenderer(grid, tileSize);
+            textureManager.ifPresent(instancedTiles::setTextureManager);
+        }
+        instancedTiles.render(startX, endX, startY, endY, camera, viewportWidth, viewportHeight);
+    }
+
+    private TextureRegion regionFor(TileTextureManager manager, int tileX, int tileY) {
+        if (manager == null) {
+            return null;
+        }
+        return manager.getRegion(grid.typeAt(tileX, tileY), grid.variationAt(tileX, tileY));
+    }
+
+    private void renderTileTextured(int tileX, int tileY) {
         TileTextureManager tileTextureManager = textureManager.orElseThrow(() -> new RuntimeException("Unable to procede without texture Manager"));
-        Texture texture = tileTextureManager.getTexture(tile.getTileType(), tile.getTextureVariation());
+        TileType type = grid.typeAt(tileX, tileY);
+        TextureRegion region = tileTextureManager.getRegion(type, grid.variationAt(tileX, tileY));
 
-        if (texture == null) {
-            renderTileColored(tile);
+        if (region == null) {
+            // Coloured fallback must not sample the atlas page left bound by the previous tile
+            RenderState.getInstance().setTexture(null);
+            renderTileColored(tileX, tileY, type);
             return;
         }
 
-        texture.bind();
+        RenderState.getInstance().setTexture(region.getTexture());
         GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
 
-        float x = tile.getGridX() * tileSize;
-        float y = tile.getGridY() * tileSize;
+        float x = tileX * tileSize;
+        float y = tileY * tileSize;
 
         GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(0, 0);
+        GL11.glTexCoord2f(region.getU0(), region.getV0());
         GL11.glVertex2f(x, y);
 
-        GL11.glTexCoord2f(1, 0);
+        GL11.glTexCoord2f(region.getU1(), region.getV0());
         GL11.glVertex2f(x + tileSize, y);
 
-        GL11.glTexCoord2f(1, 1);
+        GL11.glTexCoord2f(region.getU1(), region.getV1());
         GL11.glVertex2f(x + tileSize, y + tileSize);
 
-        GL11.glTexCoord2f(0, 1);
+        GL11.glTexCoord2f(region.getU0(), region.getV1());
         GL11.glVertex2f(x, y + tileSize);
         GL11.glEnd();
-
-        texture.unbind();
     }
 
-    private void renderTileColored(Tile tile) {
-        TileType type = tile.getTileType();
+    private void renderTileColored(int tileX, int tileY, TileType type) {
         GL11.glColor3f(type.getFallbackR(), type.getFallbackG(), type.getFallbackB());
 
-        float x = tile.getGridX() * tileSize;
-        float y = tile.getGridY() * tileSize;
+        float x = tileX * tileSize;
+        float y = tileY * tileSize;
 
         GL11.glBegin(GL11.GL_QUADS);
         GL11.glVertex2f(x, y);
@@ -118,24 +361,37 @@ public final class GridRenderer {
         GL11.glEnd();
     }
 
-    private void renderGridLines(int startX, int endX, int startY, int endY) {
-        GL11.glColor4f(0.0f, 0.0f, 0.0f, 0.3f);
-        GL11.glLineWidth(1.0f);
-
-        GL11.glBegin(GL11.GL_LINES);
-
-        for (int x = startX; x <= endX + 1; x++) {
-            float xPos = x * tileSize;
-            GL11.glVertex2f(xPos, startY * tileSize);
-            GL11.glVertex2f(xPos, (endY + 1) * tileSize);
+    public void cleanup() {
+        if (tileBuffer != null) {
+            tileBuffer.cleanup();
+            tileBuffer = null;
         }
-
-        for (int y = startY; y <= endY + 1; y++) {
-            float yPos = y * tileSize;
-            GL11.glVertex2f(startX * tileSize, yPos);
-            GL11.glVertex2f((endX + 1) * tileSize, yPos);
+        if (chunkMeshes != null) {
+            chunkMeshes.cleanup();
+            chunkMeshes = null;
+        }
+        if (instancedTiles != null) {
+            instancedTiles.cleanup();
+            instancedTiles = null;
+        }
+        if (overview != null) {
+            overview.cleanup();
+            overview = null;
+        }
+        if (gridLines != null) {
+            gridLines.cleanup();
+            gridLines = null;
         }
+    }
 
-        GL11.glEnd();
+    private static final class TextureBatch {
+        private final Texture texture;
+        private int count;
+        private int first;
+        private int cursor;
+
+        private TextureBatch(Texture texture) {
+            this.texture = texture;
+        }
     }
 }
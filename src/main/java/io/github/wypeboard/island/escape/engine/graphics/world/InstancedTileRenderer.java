@@ -0,0 +1,239 @@
+package io.github.wypeboard.island.escape.engine.graphics.world;
+
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderState;
+import io.github.wypeboard.island.escape.engine.graphics.RenderStats;
+import io.github.wypeboard.island.escape.engine.graphics.ShaderProgram;
+import io.github.wypeboard.island.escape.engine.graphics.TileTextureManager;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Draws the visible part of the grid with one instanced call. The grid's tile types and variations
+ * live on the GPU in a two-channel integer texture (one texel per tile); the vertex shader places one
+ * quad per instance and the fragment shader picks the tile's layer from the tile texture array.
+ * <p>
+ * CPU cost per frame is a handful of uniforms, independent of how many tiles are visible. Tile edits
+ * arrive through {@link TileChangeListener} and are uploaded as single texels on the next frame.
+ * Needs GL 3.3; see {@link #isSupported()}.
+ */
+final class InstancedTileRenderer implements TileChangeListener {
+
+    // Must match MAX_TILE_TYPES in tile_instanced.frag
+    private static final int MAX_TILE_TYPES = 16;
+    private static final String VERTEX_SHADER = "assets/shaders/tile_instanced.vert";
+    private static final String FRAGMENT_SHADER = "assets/shaders/tile_instanced.frag";
+
+    // Texture units: tile layers on 0 like every other texture, the tile data next to it
+    private static final int LAYER_UNIT = 0;
+    private static final int DATA_UNIT = 1;
+
+    private final Grid grid;
+    private final float tileSize;
+    private final ShaderProgram shader;
+    private final int cornerBuffer;
+    private final int dataTexture;
+
+    private TileTextureManager textureManager;
+    private final int[] typeFirstLayer = new int[MAX_TILE_TYPES];
+    private final int[] typeLayerCount = new int[MAX_TILE_TYPES];
+
+    // Tiles edited since the last frame, packed as y * width + x
+    private int[] dirtyTiles = new int[64];
+    private int dirtyCount;
+    // Set when so many tiles changed that one full upload is cheaper
+    private boolean fullUploadPending = true;
+
+    private final ByteBuffer texel = MemoryUtil.memAlloc(2);
+
+    static boolean isSupported() {
+        return GL.getCapabilities().OpenGL33;
+    }
+
+    InstancedTileRenderer(Grid grid, float tileSize) {
+        if (TileType.values().length > MAX_TILE_TYPES) {
+            throw new IllegalStateException("Instanced tile shader supports at most " + MAX_TILE_TYPES + " tile types");
+        }
+        this.grid = grid;
+        this.tileSize = tileSize;
+        this.shader = ShaderProgram.load(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        shader.bind();
+        shader.setUniform("tileLayers", LAYER_UNIT);
+        shader.setUniform("tileData", DATA_UNIT);
+        float[] fallbackColors = new float[MAX_TILE_TYPES * 3];
+        for (TileType type : TileType.values()) {
+            fallbackColors[type.ordinal() * 3] = type.getFallbackR();
+            fallbackColors[type.ordinal() * 3 + 1] = type.getFallbackG();
+            fallbackColors[type.ordinal() * 3 + 2] = type.getFallbackB();
+        }
+        shader.setUniformVec3Array("fallbackColor", fallbackColors);
+        shader.unbind();
+        uploadTypeTable();
+
+        cornerBuffer = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, cornerBuffer);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, new float[] {0, 0, 1, 0, 0, 1, 1, 1}, GL15.GL_STATIC_DRAW);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + DATA_UNIT);
+        dataTexture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, dataTexture);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_RG8UI, grid.getWidth(), grid.getHeight(),
+                0, GL30.GL_RG_INTEGER, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL13.glActiveTexture(GL13.GL_TEXTURE0);
+
+        grid.addTileChangeListener(this);
+    }
+
+    /**
+     * Variation indices are resolved against the manager on the CPU, so a new manager means a full re-upload.
+     */
+    void setTextureManager(TileTextureManager textureManager) {
+        this.textureManager = textureManager;
+        uploadTypeTable();
+        fullUploadPending = true;
+    }
+
+    @Override
+    public void tileChanged(int x, int y) {
+        if (fullUploadPending) {
+            return;
+        }
+        // Past this many edits one full upload beats a stream of single-texel ones
+        if (dirtyCount == grid.getWidth()) {
+            fullUploadPending = true;
+            dirtyCount = 0;
+            return;
+        }
+        if (dirtyCount == dirtyTiles.length) {
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyCount * 2);
+        }
+        dirtyTiles[dirtyCount++] = y * grid.getWidth() + x;
+    }
+
+    /**
+     * Same bounds as the other GridRenderer modes: x inclusive of endX, y exclusive of endY.
+     */
+    void render(int startX, int endX, int startY, int endY, Camera camera, int viewportWidth, int viewportHeight) {
+        uploadChanges();
+
+        int columns = endX - startX + 1;
+        int rows = endY - startY;
+        if (columns <= 0 || rows <= 0) {
+            return;
+        }
+
+        RenderState state = RenderState.getInstance();
+        state.setTexture(null);
+        state.setBlendMode(BlendMode.ALPHA);
+
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + DATA_UNIT);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, dataTexture);
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + LAYER_UNIT);
+        int layers = textureManager == null ? 0 : textureManager.getArrayTextureId();
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, layers);
+
+        shader.bind();
+        shader.setUniform("firstTile", startX, startY);
+        shader.setUniform("columns", columns);
+        shader.setUniform("tileSize", tileSize);
+        shader.setUniform("cameraPosition", camera.getX(), camera.getY());
+        shader.setUniform("zoom", camera.getZoom());
+        shader.setUniform("viewportSize", (float) viewportWidth, (float) viewportHeight);
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, cornerBuffer);
+        GL20.glEnableVertexAttribArray(0);
+        GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 0, 0L);
+        GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, columns * rows);
+        RenderStats.recordDrawCall();
+        GL20.glDisableVertexAttribArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        shader.unbind();
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, 0);
+    }
+
+    void cleanup() {
+        grid.removeTileChangeListener(this);
+        shader.cleanup();
+        GL15.glDeleteBuffers(cornerBuffer);
+        GL11.glDeleteTextures(dataTexture);
+        MemoryUtil.memFree(texel);
+    }
+
+    private void uploadTypeTable() {
+        Arrays.fill(typeFirstLayer, 0);
+        Arrays.fill(typeLayerCount, 0);
+        if (textureManager != null && textureManager.getArrayTextureId() != 0) {
+            for (TileType type : TileType.values()) {
+                typeFirstLayer[type.ordinal()] = textureManager.getArrayFirstLayer(type);
+                typeLayerCount[type.ordinal()] = textureManager.getVariationCount(type);
+            }
+        }
+        shader.bind();
+        shader.setUniformArray("typeFirstLayer", typeFirstLayer);
+        shader.setUniformArray("typeLayerCount", typeLayerCount);
+        shader.unbind();
+    }
+
+    private void uploadChanges() {
+        if (!fullUploadPending && dirtyCount == 0) {
+            return;
+        }
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + DATA_UNIT);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, dataTexture);
+        // Two bytes per texel, so rows of an odd-width grid aren't 4-byte aligned
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+
+        if (fullUploadPending) {
+            int width = grid.getWidth();
+            int height = grid.getHeight();
+            ByteBuffer data = MemoryUtil.memAlloc(width * height * 2);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    putTile(data, (y * width + x) * 2, x, y);
+                }
+            }
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, width, height,
+                    GL30.GL_RG_INTEGER, GL11.GL_UNSIGNED_BYTE, data);
+            MemoryUtil.memFree(data);
+        } else {
+            for (int i = 0; i < dirtyCount; i++) {
+                int x = dirtyTiles[i] % grid.getWidth();
+                int y = dirtyTiles[i] / grid.getWidth();
+                putTile(texel, 0, x, y);
+                GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, 1, 1,
+                        GL30.GL_RG_INTEGER, GL11.GL_UNSIGNED_BYTE, texel);
+            }
+        }
+
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL13.glActiveTexture(GL13.GL_TEXTURE0);
+        fullUploadPending = false;
+        dirtyCount = 0;
+    }
+
+    /**
+     * Type ordinal and variation index — reduced modulo the type's variation count, like
+     * {@link TileTextureManager#getRegion} does, so it always fits a byte.
+     */
+    private void putTile(ByteBuffer data, int offset, int x, int y) {
+        TileType type = grid.typeAt(x, y);
+        int variations = typeLayerCount[type.ordinal()];
+        int variation = variations == 0 ? 0 : grid.variationAt(x, y) % variations;
+        data.put(offset, (byte) type.ordinal());
+        data.put(offset + 1, (byte) variation);
+    }
+}
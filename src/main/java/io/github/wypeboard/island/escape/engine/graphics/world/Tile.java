@@ -1,19 +1,32 @@
 package io.github.wypeboard.island.escape.engine.graphics.world;
 
+/**
+ * One tile: either a view of a {@link Grid} cell, whose getters and setters go straight to the grid,
+ * or a standalone tile holding its own state.
+ */
 public final class Tile {
 
     private final int gridX;
     private final int gridY;
+    // Owning grid, or null for standalone tiles, which use the two fields below
+    private final Grid grid;
     private TileType tileType;
     private int textureVariation;
 
     public Tile(int gridX, int gridY, TileType tileType) {
         this.gridX = gridX;
         this.gridY = gridY;
+        this.grid = null;
         this.tileType = tileType;
         this.textureVariation = 0;
     }
 
+    Tile(int gridX, int gridY, Grid grid) {
+        this.gridX = gridX;
+        this.gridY = gridY;
+        this.grid = grid;
+    }
+
     public int getGridX() {
         return gridX;
     }
@@ -23,18 +36,26 @@ public final class Tile {
     }
 
     public TileType getTileType() {
-        return tileType;
+        return grid != null ? grid.typeAt(gridX, gridY) : tileType;
     }
 
     public void setTileType(TileType tileType) {
-        this.tileType = tileType;
+        if (grid != null) {
+            grid.setTile(gridX, gridY, tileType);
+        } else {
+            this.tileType = tileType;
+        }
     }
 
     public int getTextureVariation() {
-        return textureVariation;
+        return grid != null ? grid.variationAt(gridX, gridY) : textureVariation;
     }
 
     public void setTextureVariation(int textureVariation) {
-        this.textureVariation = textureVariation;
+        if (grid != null) {
+            grid.setTextureVariation(gridX, gridY, textureVariation);
+        } else {
+            this.textureVariation = textureVariation;
+        }
     }
 }
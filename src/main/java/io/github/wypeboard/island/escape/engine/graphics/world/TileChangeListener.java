@@ -0,0 +1,10 @@
+package io.github.wypeboard.island.escape.engine.graphics.world;
+
+/**
+ * Notified by {@link Grid} whenever a tile's type or texture variation changes.
+ */
+@FunctionalInterface
+public interface TileChangeListener {
+
+    void tileChanged(int x, int y);
+}
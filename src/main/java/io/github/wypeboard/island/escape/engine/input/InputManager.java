@@ -6,6 +6,8 @@ import org.lwjgl.glfw.GLFWKeyCallback;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class InputManager extends GLFWKeyCallback {
 
@@ -13,6 +15,8 @@ public class InputManager extends GLFWKeyCallback {
     private final Map<Integer, Boolean> pressedKeys = new HashMap<>();
     private final Map<Integer, Boolean> justPressedKeys = new HashMap<>();
     private final Map<Integer, Boolean> justReleasedKeys = new HashMap<>();
+    // Key and action per event, queued by the GLFW callback and applied by processEvents() on the updating thread
+    private final Queue<Long> events = new ConcurrentLinkedQueue<>();
 
     private InputManager() {
         // Private constructor for singleton
@@ -34,17 +38,33 @@ public class InputManager extends GLFWKeyCallback {
      */
     @Override
     public void invoke(long window, int key, int scancode, int action, int mods) {
-        boolean isPressed = action != GLFW.GLFW_RELEASE;
-        boolean wasPressed = pressedKeys.getOrDefault(key, false);
-        String keyName = GLFW.glfwGetKeyName(key, scancode);
+        events.add(((long) key << 32) | (action & 0xFFFFFFFFL));
+    }
 
-        Logger.debugThrottled(getClass(), "input-"+keyName, String.format("%s STATE: Pressed [%b] JustPressed[%b] JustReleased[%b]", key, isPressed, !wasPressed && isPressed, wasPressed && !isPressed));
+    /**
+     * Apply the key events received since the last call. Called at the start of every update, on the
+     * thread running it, so the key maps are only ever touched by that thread.
+     */
+    public void processEvents() {
+        Long event;
+        while ((event = events.poll()) != null) {
+            int key = (int) (event >> 32);
+            boolean isPressed = (int) (long) event != GLFW.GLFW_RELEASE;
+            boolean wasPressed = pressedKeys.getOrDefault(key, false);
 
-        pressedKeys.put(key, isPressed);
+            Logger.debugThrottled(getClass(), "input-" + key, String.format("%s STATE: Pressed [%b] JustPressed[%b] JustReleased[%b]", key, isPressed, !wasPressed && isPressed, wasPressed && !isPressed));
 
-        // Track just pressed/released for single frame event
-        justPressedKeys.put(key, !wasPressed && isPressed);
-        justReleasedKeys.put(key, wasPressed && !isPressed);
+            pressedKeys.put(key, isPressed);
+
+            // Track just pressed/released for single frame event. Only ever set here, so a press and
+            // release arriving before the same update both count
+            if (!wasPressed && isPressed) {
+                justPressedKeys.put(key, true);
+            }
+            if (wasPressed && !isPressed) {
+                justReleasedKeys.put(key, true);
+            }
+        }
     }
 
     public boolean isKeyPressed(int key) {
@@ -8,6 +8,8 @@ import org.lwjgl.glfw.GLFWScrollCallback;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class MouseManager {
 
@@ -32,6 +34,12 @@ public class MouseManager {
     private final Map<Integer, Boolean> justPressedButtons = new HashMap<>();
     private final Map<Integer, Boolean> justReleasedButtons = new HashMap<>();
 
+    // Queued by the GLFW callbacks and applied by processEvents() on the updating thread
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+    // Latest cursor position as two float bits, x high and y low. Only the newest position matters, and
+    // moves are the most frequent event, so the callback overwrites this instead of queueing anything
+    private volatile long cursorPosition;
+
     // Callbacks
     private GLFWCursorPosCallback cursorPosCallback;
     private GLFWMouseButtonCallback mouseButtonCallback;
@@ -53,8 +61,8 @@ public class MouseManager {
         cursorPosCallback = new GLFWCursorPosCallback() {
             @Override
             public void invoke(long window, double xPos, double yPos) {
-                mouseX = xPos;
-                mouseY = yPos;
+                cursorPosition = ((long) Float.floatToRawIntBits((float) xPos) << 32)
+                        | (Float.floatToRawIntBits((float) yPos) & 0xFFFFFFFFL);
             }
         };
         GLFW.glfwSetCursorPosCallback(windowHandle, cursorPosCallback);
@@ -62,15 +70,7 @@ public class MouseManager {
         mouseButtonCallback = new GLFWMouseButtonCallback() {
             @Override
             public void invoke(long window, int button, int action, int mods) {
-                boolean isPressed = action != GLFW.GLFW_RELEASE;
-                boolean wasPressed = pressedButtons.getOrDefault(button, false);
-
-                pressedButtons.put(button, isPressed);
-                justPressedButtons.put(button, !wasPressed && isPressed);
-                justReleasedButtons.put(button, wasPressed && !isPressed);
-
-                Logger.debug(getClass(), button + " BUTTON PRESSED at (" + mouseX + ", " + mouseY + ")");
-
+                events.add(() -> applyButton(button, action));
             }
         };
         GLFW.glfwSetMouseButtonCallback(windowHandle, mouseButtonCallback);
@@ -78,8 +78,10 @@ public class MouseManager {
         scrollCallback = new GLFWScrollCallback() {
             @Override
             public void invoke(long window, double xOffset, double yOffset) {
-                scrollX = xOffset;
-                scrollY = yOffset;
+                events.add(() -> {
+                    scrollX += xOffset;
+                    scrollY += yOffset;
+                });
             }
         };
         GLFW.glfwSetScrollCallback(windowHandle, scrollCallback);
@@ -87,6 +89,37 @@ public class MouseManager {
         Logger.debug(getClass(), "Mouse callbacks initialized successfully");
     }
 
+    /**
+     * Apply the mouse events received since the last call. Called at the start of every update, on the
+     * thread running it, so the mouse state is only ever touched by that thread.
+     */
+    public void processEvents() {
+        long position = cursorPosition;
+        mouseX = Float.intBitsToFloat((int) (position >>> 32));
+        mouseY = Float.intBitsToFloat((int) position);
+
+        Runnable event;
+        while ((event = events.poll()) != null) {
+            event.run();
+        }
+    }
+
+    private void applyButton(int button, int action) {
+        boolean isPressed = action != GLFW.GLFW_RELEASE;
+        boolean wasPressed = pressedButtons.getOrDefault(button, false);
+
+        pressedButtons.put(button, isPressed);
+        // Only ever set here, so a click within one update still counts as both
+        if (!wasPressed && isPressed) {
+            justPressedButtons.put(button, true);
+        }
+        if (wasPressed && !isPressed) {
+            justReleasedButtons.put(button, true);
+        }
+
+        Logger.debug(getClass(), button + " BUTTON PRESSED at (" + mouseX + ", " + mouseY + ")");
+    }
+
     public void update() {
         // Calculate delta offset
         deltaX = mouseX - lastMouseX;
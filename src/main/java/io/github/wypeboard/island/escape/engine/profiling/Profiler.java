@@ -0,0 +1,382 @@
+package io.github.wypeboard.island.escape.engine.profiling;
+
+import org.lwjgl.opengl.ARBTimerQuery;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL33;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hierarchical frame profiler. Code marks named scopes with {@link #begin(int)} / {@link #end(int)};
+ * nested scopes form a tree per thread, and every node keeps its last {@link #HISTORY} durations in a
+ * ring buffer. On the GL thread each scope is also timed on the GPU with timestamp queries (GL 3.3 or
+ * ARB_timer_query), read back a few frames later without stalling.
+ * <p>
+ * While disabled, begin and end return after one volatile read and nothing is allocated; the trees
+ * and rings only come into being once profiling is switched on. Scope ids come from {@link #scope(String)},
+ * usually held in a static final field:
+ * <pre>
+ * private static final int PROFILE_UPDATE = Profiler.scope("EntityManager.update");
+ * </pre>
+ */
+public final class Profiler {
+
+    /**
+     * Samples kept per scope, and frames in the frame-time history.
+     */
+    public static final int HISTORY = 120;
+
+    private static final int MAX_DEPTH = 32;
+    // Queries waiting for the GPU; scopes past this many go without GPU times until some complete
+    private static final int MAX_PENDING_QUERIES = 1024;
+
+    private static final List<String> scopeNames = new ArrayList<>();
+    private static final List<Track> tracks = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Track> currentTrack = ThreadLocal.withInitial(Profiler::newTrack);
+
+    private static volatile boolean enabled;
+    // Bumped on every enable, so tracks drop scopes left open while profiling was off
+    private static volatile int epoch;
+
+    // GL thread only
+    private static Track glTrack;
+    private static boolean gpuTimers;
+    private static int[] freeQueries = new int[64];
+    private static int freeQueryCount;
+    private static final Node[] pendingNodes = new Node[MAX_PENDING_QUERIES];
+    private static final int[] pendingStart = new int[MAX_PENDING_QUERIES];
+    private static final int[] pendingEnd = new int[MAX_PENDING_QUERIES];
+    private static int pendingFirst;
+    private static int pendingCount;
+
+    private static final float[] frameMillis = new float[HISTORY];
+    private static int frameCount;
+    private static long lastFrameStart;
+
+    private Profiler() {
+        // Utility class
+    }
+
+    /**
+     * Register a scope name once and get the id to pass to begin and end.
+     */
+    public static synchronized int scope(String name) {
+        int existing = scopeNames.indexOf(name);
+        if (existing >= 0) {
+            return existing;
+        }
+        scopeNames.add(name);
+        return scopeNames.size() - 1;
+    }
+
+    public static synchronized String getScopeName(int scope) {
+        return scopeNames.get(scope);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !Profiler.enabled) {
+            epoch++;
+        }
+        Profiler.enabled = enabled;
+    }
+
+    public static void begin(int scope) {
+        if (!enabled) {
+            return;
+        }
+        currentTrack.get().begin(scope);
+    }
+
+    public static void end(int scope) {
+        if (!enabled) {
+            return;
+        }
+        currentTrack.get().end(scope);
+    }
+
+    /**
+     * Mark the start of a frame. Called by GameLoop on the GL thread, which makes that thread's scopes
+     * the GPU-timed ones; also collects finished GPU queries.
+     */
+    public static void beginFrame() {
+        long now = System.nanoTime();
+        if (lastFrameStart != 0 && enabled) {
+            frameMillis[frameCount % HISTORY] = (now - lastFrameStart) / 1_000_000f;
+            frameCount++;
+        }
+        lastFrameStart = now;
+
+        if (glTrack == null && enabled) {
+            glTrack = currentTrack.get();
+            gpuTimers = GL.getCapabilities().OpenGL33 || GL.getCapabilities().GL_ARB_timer_query;
+        }
+        collectQueries();
+    }
+
+    /**
+     * Frame times in milliseconds, oldest first, as many as {@link #getFrameCount()} allows up to HISTORY.
+     */
+    public static void copyFrameTimes(float[] target) {
+        int count = Math.min(frameCount, HISTORY);
+        for (int i = 0; i < count; i++) {
+            target[i] = frameMillis[(frameCount - count + i) % HISTORY];
+        }
+    }
+
+    public static int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * One tree per thread that has entered a scope, e.g. the GL thread and the simulation thread.
+     */
+    public static List<Track> getTracks() {
+        return tracks;
+    }
+
+    public static boolean hasGpuTimers() {
+        return gpuTimers;
+    }
+
+    public static void cleanup() {
+        enabled = false;
+        for (int i = 0; i < pendingCount; i++) {
+            int slot = (pendingFirst + i) % MAX_PENDING_QUERIES;
+            GL15.glDeleteQueries(pendingStart[slot]);
+            GL15.glDeleteQueries(pendingEnd[slot]);
+        }
+        pendingCount = 0;
+        for (int i = 0; i < freeQueryCount; i++) {
+            GL15.glDeleteQueries(freeQueries[i]);
+        }
+        freeQueryCount = 0;
+    }
+
+    private static Track newTrack() {
+        Track track = new Track(Thread.currentThread().getName());
+        tracks.add(track);
+        return track;
+    }
+
+    private static int acquireQuery() {
+        if (freeQueryCount == 0) {
+            return GL15.glGenQueries();
+        }
+        return freeQueries[--freeQueryCount];
+    }
+
+    private static void releaseQuery(int query) {
+        if (freeQueryCount == freeQueries.length) {
+            freeQueries = Arrays.copyOf(freeQueries, freeQueryCount * 2);
+        }
+        freeQueries[freeQueryCount++] = query;
+    }
+
+    /**
+     * Read back every query pair the GPU has finished. They finish in order, so stop at the first that hasn't.
+     */
+    private static void collectQueries() {
+        while (pendingCount > 0) {
+            int slot = pendingFirst;
+            if (GL15.glGetQueryObjecti(pendingEnd[slot], GL15.GL_QUERY_RESULT_AVAILABLE) == 0) {
+                return;
+            }
+            long start = queryResult(pendingStart[slot]);
+            long end = queryResult(pendingEnd[slot]);
+            pendingNodes[slot].gpu.add(end - start);
+            releaseQuery(pendingStart[slot]);
+            releaseQuery(pendingEnd[slot]);
+            pendingNodes[slot] = null;
+            pendingFirst = (pendingFirst + 1) % MAX_PENDING_QUERIES;
+            pendingCount--;
+        }
+    }
+
+    private static long queryResult(int query) {
+        if (GL.getCapabilities().OpenGL33) {
+            return GL33.glGetQueryObjecti64(query, GL15.GL_QUERY_RESULT);
+        }
+        return ARBTimerQuery.glGetQueryObjecti64(query, GL15.GL_QUERY_RESULT);
+    }
+
+    private static void timestamp(int query) {
+        if (GL.getCapabilities().OpenGL33) {
+            GL33.glQueryCounter(query, GL33.GL_TIMESTAMP);
+        } else {
+            ARBTimerQuery.glQueryCounter(query, ARBTimerQuery.GL_TIMESTAMP);
+        }
+    }
+
+    /**
+     * The last {@link #HISTORY} values of one measurement, in nanoseconds.
+     */
+    public static final class Ring {
+        private final long[] values = new long[HISTORY];
+        private volatile int count;
+
+        void add(long value) {
+            values[count % HISTORY] = value;
+            count++;
+        }
+
+        /**
+         * Mean of the samples held, in milliseconds; 0 before the first.
+         */
+        public float getAverageMillis() {
+            int n = Math.min(count, HISTORY);
+            if (n == 0) {
+                return 0;
+            }
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += values[i];
+            }
+            return sum / (n * 1_000_000f);
+        }
+
+        public boolean isEmpty() {
+            return count == 0;
+        }
+    }
+
+    /**
+     * One scope at one position in the tree.
+     */
+    public static final class Node {
+        private final int scope;
+        private final int depth;
+        private final List<Node> children = new CopyOnWriteArrayList<>();
+        private final Ring cpu = new Ring();
+        private final Ring gpu = new Ring();
+
+        private Node(int scope, int depth) {
+            this.scope = scope;
+            this.depth = depth;
+        }
+
+        private Node child(int childScope) {
+            // Indexed rather than iterated, which would allocate
+            for (int i = 0; i < children.size(); i++) {
+                Node child = children.get(i);
+                if (child.scope == childScope) {
+                    return child;
+                }
+            }
+            Node child = new Node(childScope, depth + 1);
+            children.add(child);
+            return child;
+        }
+
+        public String getName() {
+            return getScopeName(scope);
+        }
+
+        /**
+         * 0 for top-level scopes.
+         */
+        public int getDepth() {
+            return depth - 1;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        public Ring getCpu() {
+            return cpu;
+        }
+
+        /**
+         * Empty unless this scope ran on the GL thread with timer queries available.
+         */
+        public Ring getGpu() {
+            return gpu;
+        }
+    }
+
+    /**
+     * The scope tree of one thread. Only that thread writes it; the overlay reads it from the GL thread,
+     * which for a debug display tolerates seeing a sample mid-update.
+     */
+    public static final class Track {
+        private final String threadName;
+        private final Node root = new Node(-1, 0);
+        private final Node[] stack = new Node[MAX_DEPTH];
+        private final long[] startNanos = new long[MAX_DEPTH];
+        private final int[] startQueries = new int[MAX_DEPTH];
+        private int depth;
+        private int trackEpoch = -1;
+
+        private Track(String threadName) {
+            this.threadName = threadName;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public List<Node> getScopes() {
+            return root.children;
+        }
+
+        private void begin(int scope) {
+            if (trackEpoch != epoch) {
+                reset();
+            }
+            if (depth == MAX_DEPTH) {
+                return;
+            }
+            Node parent = depth == 0 ? root : stack[depth - 1];
+            stack[depth] = parent.child(scope);
+            startQueries[depth] = 0;
+            if (this == glTrack && gpuTimers && pendingCount < MAX_PENDING_QUERIES) {
+                startQueries[depth] = acquireQuery();
+                timestamp(startQueries[depth]);
+            }
+            startNanos[depth] = System.nanoTime();
+            depth++;
+        }
+
+        private void end(int scope) {
+            long now = System.nanoTime();
+            // Unbalanced after profiling was switched on mid-scope
+            if (depth == 0 || stack[depth - 1].scope != scope || trackEpoch != epoch) {
+                return;
+            }
+            depth--;
+            Node node = stack[depth];
+            node.cpu.add(now - startNanos[depth]);
+
+            int startQuery = startQueries[depth];
+            if (startQuery != 0 && pendingCount == MAX_PENDING_QUERIES) {
+                releaseQuery(startQuery);
+            } else if (startQuery != 0) {
+                int endQuery = acquireQuery();
+                timestamp(endQuery);
+                int slot = (pendingFirst + pendingCount) % MAX_PENDING_QUERIES;
+                pendingNodes[slot] = node;
+                pendingStart[slot] = startQuery;
+                pendingEnd[slot] = endQuery;
+                pendingCount++;
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < depth; i++) {
+                if (startQueries[i] != 0) {
+                    releaseQuery(startQueries[i]);
+                }
+            }
+            depth = 0;
+            trackEpoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.wypeboard.island.escape.engine.profiling;
+
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
+
+import java.util.List;
+
+/**
+ * Draws the {@link Profiler}'s data over the frame: a rolling graph of frame times and, per thread, the
+ * scope tree with average CPU and GPU milliseconds. Drawn by GameLoop after everything else while
+ * profiling is on.
+ */
+public final class ProfilerOverlay {
+
+    private static final float X = 10;
+    private static final float Y = 50;
+    private static final float WIDTH = 420;
+    private static final float PADDING = 8;
+    private static final float LINE_HEIGHT = 16;
+    private static final float INDENT = 12;
+    private static final float TEXT_SCALE = 0.75f;
+    private static final float GRAPH_HEIGHT = 60;
+    private static final float BAR_WIDTH = 2;
+    // Bars are scaled to this and clipped above it
+    private static final float GRAPH_MAX_MS = 50;
+    // 60 and 30 frames per second
+    private static final float GOOD_FRAME_MS = 1000f / 60;
+    private static final float SLOW_FRAME_MS = 1000f / 30;
+    private static final float CPU_COLUMN = WIDTH - PADDING - 80;
+    private static final float GPU_COLUMN = WIDTH - PADDING;
+
+    private final float[] frameTimes = new float[Profiler.HISTORY];
+    // Created on first render, once there is a GL context
+    private UIBatch batch;
+    private float lineY;
+
+    public void render() {
+        if (batch == null) {
+            batch = new UIBatch();
+        }
+        List<Profiler.Track> tracks = Profiler.getTracks();
+        int lines = 1;
+        for (Profiler.Track track : tracks) {
+            lines += 1 + countNodes(track.getScopes());
+        }
+        float height = PADDING * 3 + GRAPH_HEIGHT + lines * LINE_HEIGHT;
+
+        batch.begin();
+        batch.fillRect(X, Y, WIDTH, height, 0.0f, 0.0f, 0.0f, 0.75f);
+        batch.pushLayer();
+
+        int frames = Math.min(Profiler.getFrameCount(), Profiler.HISTORY);
+        Profiler.copyFrameTimes(frameTimes);
+        float total = 0;
+        float max = 0;
+        for (int i = 0; i < frames; i++) {
+            total += frameTimes[i];
+            max = Math.max(max, frameTimes[i]);
+        }
+        float average = frames == 0 ? 0 : total / frames;
+        lineY = Y + PADDING;
+        batch.drawText(String.format("Frame %.2f ms avg, %.2f ms max", average, max),
+                X + PADDING, lineY, TEXT_SCALE, 1.0f, 1.0f, 1.0f);
+        batch.drawTextRight("cpu ms", X + CPU_COLUMN, lineY, TEXT_SCALE, 0.7f, 0.7f, 0.7f);
+        if (Profiler.hasGpuTimers()) {
+            batch.drawTextRight("gpu ms", X + GPU_COLUMN, lineY, TEXT_SCALE, 0.7f, 0.7f, 0.7f);
+        }
+        lineY += LINE_HEIGHT;
+
+        renderGraph(frames, lineY + PADDING);
+        lineY += GRAPH_HEIGHT + PADDING * 2;
+
+        for (Profiler.Track track : tracks) {
+            batch.drawText(track.getThreadName(), X + PADDING, lineY, TEXT_SCALE, 0.6f, 0.8f, 1.0f);
+            lineY += LINE_HEIGHT;
+            renderNodes(track.getScopes());
+        }
+        batch.end();
+    }
+
+    public void cleanup() {
+        if (batch != null) {
+            batch.cleanup();
+            batch = null;
+        }
+    }
+
+    private void renderGraph(int frames, float top) {
+        float left = X + PADDING;
+        float bottom = top + GRAPH_HEIGHT;
+        batch.fillRect(left, top, Profiler.HISTORY * BAR_WIDTH, GRAPH_HEIGHT, 1.0f, 1.0f, 1.0f, 0.08f);
+        // Newest frame on the right
+        float firstX = left + (Profiler.HISTORY - frames) * BAR_WIDTH;
+        for (int i = 0; i < frames; i++) {
+            float ms = frameTimes[i];
+            float barHeight = Math.min(ms, GRAPH_MAX_MS) / GRAPH_MAX_MS * GRAPH_HEIGHT;
+            if (ms <= GOOD_FRAME_MS) {
+                batch.fillRect(firstX + i * BAR_WIDTH, bottom - barHeight, BAR_WIDTH, barHeight, 0.3f, 0.9f, 0.3f, 0.9f);
+            } else if (ms <= SLOW_FRAME_MS) {
+                batch.fillRect(firstX + i * BAR_WIDTH, bottom - barHeight, BAR_WIDTH, barHeight, 1.0f, 0.8f, 0.2f, 0.9f);
+            } else {
+                batch.fillRect(firstX + i * BAR_WIDTH, bottom - barHeight, BAR_WIDTH, barHeight, 1.0f, 0.3f, 0.3f, 0.9f);
+            }
+        }
+        // 60 fps budget line
+        float budgetY = bottom - GOOD_FRAME_MS / GRAPH_MAX_MS * GRAPH_HEIGHT;
+        batch.fillRect(left, budgetY, Profiler.HISTORY * BAR_WIDTH, 1, 1.0f, 1.0f, 1.0f, 0.4f);
+    }
+
+    private void renderNodes(List<Profiler.Node> nodes) {
+        for (Profiler.Node node : nodes) {
+            float indent = (node.getDepth() + 1) * INDENT;
+            batch.drawText(node.getName(), X + PADDING + indent, lineY, TEXT_SCALE, 1.0f, 1.0f, 1.0f);
+            batch.drawTextRight(String.format("%.2f", node.getCpu().getAverageMillis()),
+                    X + CPU_COLUMN, lineY, TEXT_SCALE, 1.0f, 1.0f, 1.0f);
+            if (!node.getGpu().isEmpty()) {
+                batch.drawTextRight(String.format("%.2f", node.getGpu().getAverageMillis()),
+                        X + GPU_COLUMN, lineY, TEXT_SCALE, 0.8f, 0.8f, 1.0f);
+            }
+            lineY += LINE_HEIGHT;
+            renderNodes(node.getChildren());
+        }
+    }
+
+    private static int countNodes(List<Profiler.Node> nodes) {
+        int count = nodes.size();
+        for (Profiler.Node node : nodes) {
+            count += countNodes(node.getChildren());
+        }
+        return count;
+    }
+}
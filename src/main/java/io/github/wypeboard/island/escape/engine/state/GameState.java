@@ -6,9 +6,27 @@ public abstract class GameState {
 
     public abstract void init();
     public abstract void update(double deltaTime);
-    public abstract void render();
+    /**
+     * @param alpha how far this frame is from the last update towards the next, 0 to 1
+     */
+    public abstract void render(float alpha);
     public abstract void cleanup();
 
+    /**
+     * Whether {@link #update(double)} may run on the simulation thread while the GL thread renders.
+     * Only true for states that render from published snapshots, see {@link SnapshotGameState}.
+     */
+    public boolean supportsThreadedUpdate() {
+        return false;
+    }
+
+    /**
+     * Called after every update, on the thread that ran it.
+     */
+    public void publishSnapshot() {
+        // Nothing to publish for states that render straight from their own fields
+    }
+
     // Called when state becomes active
     public void onEnter() {
         if (!initialized) {
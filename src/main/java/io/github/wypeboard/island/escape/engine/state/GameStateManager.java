@@ -5,7 +5,8 @@ public class GameStateManager {
     private static GameStateManager instance;
 
     private GameState currentState ;
-    private GameState nextState;
+    // Set from the simulation thread in threaded mode; the switch itself always happens on the GL thread
+    private volatile GameState nextState;
 
     private GameStateManager() {
         // Private constructor for singleton
@@ -36,12 +37,32 @@ public class GameStateManager {
         // Update current state
         if (this.currentState != null) {
             currentState.update(deltaTime);
+            currentState.publishSnapshot();
         }
     }
 
-    public void render() {
+    /**
+     * True once a state has been set and until the next update switches to it.
+     */
+    public boolean hasPendingState() {
+        return nextState != null;
+    }
+
+    /**
+     * Whether updates may run on the simulation thread right now: the current state renders from
+     * snapshots and no switch is pending, since entering a state needs the GL thread.
+     */
+    public boolean isThreadedUpdateAllowed() {
+        GameState state = currentState;
+        return nextState == null && state != null && state.supportsThreadedUpdate();
+    }
+
+    /**
+     * @param alpha fraction of a tick since the last update, for drawing between ticks
+     */
+    public void render(float alpha) {
         if (this.currentState != null) {
-            this.currentState.render();
+            this.currentState.render(alpha);
         }
     }
 
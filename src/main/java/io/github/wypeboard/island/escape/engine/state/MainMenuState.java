@@ -1,12 +1,15 @@
 package io.github.wypeboard.island.escape.engine.state;
 
 import io.github.wypeboard.island.escape.engine.GameLoop;
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderQueue;
 import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
 import io.github.wypeboard.island.escape.engine.graphics.ViewportManager;
 import io.github.wypeboard.island.escape.engine.ui.UIAnchor;
 import io.github.wypeboard.island.escape.engine.ui.UIButton;
 import io.github.wypeboard.island.escape.engine.ui.UIManager;
 import io.github.wypeboard.island.escape.engine.ui.UIPanel;
+import io.github.wypeboard.island.escape.utils.Logger;
 import org.lwjgl.opengl.GL11;
 
 public class MainMenuState extends GameState {
@@ -39,6 +42,8 @@ public class MainMenuState extends GameState {
         float panelY = viewport.getCenterY() - panelHeight / 2;
 
         menuPanel = new UIPanel(panelX, panelY, panelWidth, panelHeight);
+        // The menu only changes when a button's hover state does
+        menuPanel.setCached(true);
         float buttonWidth = 200;
         float buttonHeight = 40;
         float buttonSpacing = 60;
@@ -85,27 +90,30 @@ public class MainMenuState extends GameState {
     }
 
     @Override
-    public void render() {
+    public void render(float alpha) {
         GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
 
         ViewportManager viewport = ViewportManager.getInstance();
         TextRenderer textRenderer = TextRenderer.getInstance();
 
-        textRenderer.drawTextCentered(
-                "TRANSPORT TYCOON",
-                viewport.getCenterX(),
-                viewport.getCenterY() - 150,
-                2.5f,
-                1.0f, 1.0f, 0.0f
-        );
-
-        textRenderer.drawTextCentered(
-                "Prototype",
-                viewport.getCenterX(),
-                viewport.getCenterY() - 110,
-                1.2f,
-                0.8f, 0.8f, 0.8f
-        );
+        RenderQueue.getInstance().submit(RenderQueue.LAYER_HUD_TEXT, BlendMode.ALPHA,
+                textRenderer.getGlyphTexture(), () -> {
+                    textRenderer.drawTextCentered(
+                            "TRANSPORT TYCOON",
+                            viewport.getCenterX(),
+                            viewport.getCenterY() - 150,
+                            2.5f,
+                            1.0f, 1.0f, 0.0f
+                    );
+
+                    textRenderer.drawTextCentered(
+                            "Prototype",
+                            viewport.getCenterX(),
+                            viewport.getCenterY() - 110,
+                            1.2f,
+                            0.8f, 0.8f, 0.8f
+                    );
+                });
 
 
         uiManager.render();
@@ -113,6 +121,9 @@ public class MainMenuState extends GameState {
 
     @Override
     public void cleanup() {
+        Logger.debug(getClass(), "Menu panel cache: " + menuPanel.getCacheHits() + " hits, "
+                + menuPanel.getCacheMisses() + " misses");
+        menuPanel.cleanup();
         uiManager.clearAll();
     }
 
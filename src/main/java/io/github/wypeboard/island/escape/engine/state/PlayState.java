@@ -1,6 +1,11 @@
 package io.github.wypeboard.island.escape.engine.state;
 
+import io.github.wypeboard.island.escape.engine.graphics.AsyncTextureLoader;
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderQueue;
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
 import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
+import io.github.wypeboard.island.escape.engine.graphics.TextureFilter;
 import io.github.wypeboard.island.escape.engine.graphics.TileTextureManager;
 import io.github.wypeboard.island.escape.engine.graphics.WindowManager;
 import io.github.wypeboard.island.escape.engine.graphics.world.Camera;
@@ -9,7 +14,12 @@ import io.github.wypeboard.island.escape.engine.graphics.world.GridRenderer;
 import io.github.wypeboard.island.escape.engine.graphics.world.TileType;
 import io.github.wypeboard.island.escape.engine.input.InputManager;
 import io.github.wypeboard.island.escape.engine.input.MouseManager;
+import io.github.wypeboard.island.escape.engine.ui.UIAnchor;
+import io.github.wypeboard.island.escape.engine.ui.UIBounds;
+import io.github.wypeboard.island.escape.engine.ui.UIManager;
+import io.github.wypeboard.island.escape.engine.ui.UIMinimap;
 import io.github.wypeboard.island.escape.game.entity.EntityManager;
+import io.github.wypeboard.island.escape.game.entity.EntitySnapshot;
 import io.github.wypeboard.island.escape.game.entity.type.Npc;
 import io.github.wypeboard.island.escape.game.entity.type.Player;
 import io.github.wypeboard.island.escape.game.resources.ItemType;
@@ -17,7 +27,14 @@ import io.github.wypeboard.island.escape.utils.Logger;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
 
-public class PlayState extends GameState {
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The island. Renders only from {@link Snapshot}s, so its updates can run on the simulation thread:
+ * the grid the renderers draw is a copy kept in sync through a log of tile changes.
+ */
+public class PlayState extends SnapshotGameState<PlayState.Snapshot> {
 
     private static final int WORLD_WIDTH = 64;
     private static final int WORLD_HEIGHT = 64;
@@ -27,12 +44,42 @@ public class PlayState extends GameState {
 
     // How close the player must be to trigger NPC dialogue (world pixels)
     private static final float INTERACT_RADIUS = 48f;
+    private static final float DIALOGUE_BOX_HEIGHT = 80f;
+    private static final float MINIMAP_SIZE = 160f;
 
+    // Simulation side — only touched by update() and writeSnapshot()
     private Grid grid;
-    private GridRenderer gridRenderer;
     private Camera camera;
+    private GridRenderer.RenderMode renderMode;
+    private boolean gridLinesVisible;
+    private long tileChangesWritten;
+
+    // Tile changes packed by recordTileChange as x, y (24 bits each), variation and type (a byte each), in order,
+    // from the simulation to renderGrid
+    private final Queue<Long> tileChanges = new ConcurrentLinkedQueue<>();
+
+    // Render side — only touched on the GL thread
+    private Grid renderGrid;
+    private long tileChangesApplied;
+    private GridRenderer gridRenderer;
+    private TileTextureManager tileTextures;
+    // What is drawn: the camera between the last two ticks
+    private Camera viewCamera;
+    private Snapshot current;
+    private float renderAlpha;
+    // Where the minimap draws its markers, centres only
+    private final UIBounds playerMarker = new UIBounds(0, 0, 0, 0);
+    private final UIBounds npcMarker = new UIBounds(0, 0, 0, 0);
+
     private Player player;
     private EntityManager entityManager;
+    private SpriteBatch entityBatch;
+    private SpriteBatch hudBatch;
+    private UIMinimap minimap;
+
+    // Render queue commands that run every frame, kept as fields so submitting them doesn't allocate
+    private final RenderQueue.Command worldCommand = this::renderWorld;
+    private final RenderQueue.Command entitiesCommand = this::renderEntitiesInWorldSpace;
 
     // The one NPC for the MVP quest — held separately so PlayState can check it directly
     private Npc questNPC;
@@ -57,6 +104,7 @@ public class PlayState extends GameState {
         buildWorld();
         setupCamera();
         setupEntities();
+        setupHud();
     }
 
     private void initManagers() {
@@ -114,14 +162,26 @@ public class PlayState extends GameState {
             }
         }
 
-        gridRenderer = new GridRenderer(grid, TILE_SIZE);
-
-        // Wire up textures if available — falls back to colours gracefully
-        TileTextureManager textures = new TileTextureManager("assets/textures/tiles");
-        textures.loadTileTextures();
-        if (textures.hasAnyTextures()) {
-            gridRenderer.setTextureManager(textures);
+        // The renderers get their own copy, so the simulation can change tiles while they draw
+        renderGrid = new Grid(WORLD_WIDTH, WORLD_HEIGHT);
+        for (int y = 0; y < WORLD_HEIGHT; y++) {
+            for (int x = 0; x < WORLD_WIDTH; x++) {
+                renderGrid.setTile(x, y, grid.typeAt(x, y));
+                renderGrid.setTextureVariation(x, y, grid.variationAt(x, y));
+            }
         }
+        grid.addTileChangeListener(this::recordTileChange);
+
+        gridRenderer = new GridRenderer(renderGrid, TILE_SIZE);
+        renderMode = gridRenderer.getRenderMode();
+        gridLinesVisible = gridRenderer.isGridLinesVisible();
+
+        // Textures stream in over the first frames — tiles show their fallback colours until then
+        tileTextures = new TileTextureManager("assets/textures/tiles");
+        // Mip levels keep the tiles from shimmering at the far end of the zoom range
+        tileTextures.setFilter(TextureFilter.MIPMAPPED);
+        tileTextures.loadTileTextures(AsyncTextureLoader.getInstance());
+        gridRenderer.setTextureManager(tileTextures);
     }
 
     private void setupCamera() {
@@ -129,10 +189,13 @@ public class PlayState extends GameState {
         float worldCX = (WORLD_WIDTH  / 2f) * TILE_SIZE;
         float worldCY = (WORLD_HEIGHT / 2f) * TILE_SIZE;
         camera = new Camera(worldCX, worldCY, 1.5f);
+        viewCamera = new Camera(worldCX, worldCY, 1.5f);
     }
 
     private void setupEntities() {
         entityManager = new EntityManager();
+        entityBatch = new SpriteBatch();
+        hudBatch = new SpriteBatch(64);
 
         // Spawn player at the island centre
         float spawnX = (WORLD_WIDTH  / 2f) * TILE_SIZE + TILE_SIZE / 2f;
@@ -153,13 +216,38 @@ public class PlayState extends GameState {
         entityManager.add(questNPC);
     }
 
+    private void setupHud() {
+        minimap = new UIMinimap(UIAnchor.topRight(20, 20), MINIMAP_SIZE, MINIMAP_SIZE, renderGrid, TILE_SIZE);
+        minimap.addMarker(() -> npcMarker, 1.0f, 0.8f, 0.2f);
+        minimap.addMarker(() -> playerMarker, 1.0f, 1.0f, 1.0f);
+        UIManager.getInstance().addElement(minimap);
+    }
+
 
     @Override
     public void update(double deltaTime) {
+        camera.beginTick();
         entityManager.update(deltaTime);
         handleCameraFollow();
         handleCameraZoom();
         handleInteraction();
+        handleDebugKeys();
+    }
+
+    /**
+     * Developer toggles. F2 cycles the tile renderer modes so they can be compared on the same grid,
+     * F3 shows or hides the tile grid lines.
+     */
+    private void handleDebugKeys() {
+        if (inputManager.isKeyJustPressed(GLFW.GLFW_KEY_F2)) {
+            GridRenderer.RenderMode[] modes = GridRenderer.RenderMode.values();
+            renderMode = modes[(renderMode.ordinal() + 1) % modes.length];
+            Logger.debug(getClass(), "Grid render mode: " + renderMode);
+        }
+        if (inputManager.isKeyJustPressed(GLFW.GLFW_KEY_F3)) {
+            gridLinesVisible = !gridLinesVisible;
+            Logger.debug(getClass(), "Grid lines: " + (gridLinesVisible ? "on" : "off"));
+        }
     }
 
     /**
@@ -207,31 +295,105 @@ public class PlayState extends GameState {
     }
 
     @Override
-    public void render() {
+    protected Snapshot createSnapshot() {
+        return new Snapshot();
+    }
+
+    @Override
+    protected void writeSnapshot(Snapshot snapshot) {
+        snapshot.camera.copyFrom(camera);
+        entityManager.writeSnapshot(snapshot.entities);
+        snapshot.playerX = player.getX();
+        snapshot.playerY = player.getY();
+        snapshot.npcX = questNPC.getX();
+        snapshot.npcY = questNPC.getY();
+        snapshot.dialogue = activeDialogue;
+        snapshot.interactHint = activeDialogue == null
+                && questNPC.isInRange(player.getX(), player.getY(), INTERACT_RADIUS);
+        snapshot.wood = player.getInventory().getCount(ItemType.WOOD);
+        snapshot.renderMode = renderMode;
+        snapshot.gridLinesVisible = gridLinesVisible;
+        snapshot.tileChanges = tileChangesWritten;
+    }
+
+    /**
+     * Queues the world, the entities and the HUD; GameLoop executes the queue after this returns.
+     */
+    @Override
+    protected void render(Snapshot snapshot, float alpha) {
         GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+        current = snapshot;
+        renderAlpha = alpha;
 
-        int w = windowManager.getWidth();
-        int h = windowManager.getHeight();
+        applyTileChanges(snapshot.tileChanges);
+        if (gridRenderer.getRenderMode() != snapshot.renderMode) {
+            gridRenderer.setRenderMode(snapshot.renderMode);
+        }
+        gridRenderer.setGridLinesVisible(snapshot.gridLinesVisible);
+        snapshot.camera.interpolate(viewCamera, alpha);
+        playerMarker.setX(snapshot.playerX);
+        playerMarker.setY(snapshot.playerY);
+        npcMarker.setX(snapshot.npcX);
+        npcMarker.setY(snapshot.npcY);
+
+        RenderQueue queue = RenderQueue.getInstance();
+        queue.submit(RenderQueue.LAYER_WORLD, BlendMode.OPAQUE, null, worldCommand);
+        queue.submit(RenderQueue.LAYER_ENTITIES, BlendMode.ALPHA, null, entitiesCommand);
+
+        // HUD (screen space — no camera transform). It takes no input, so it is laid out here rather than in update
+        renderHUD(queue);
+        UIManager.getInstance().update(0);
+        UIManager.getInstance().render();
+    }
 
-        gridRenderer.renderer(camera, w, h);
-        renderEntitiesInWorldSpace(w, h);
+    /**
+     * Simulation side: log a tile change for the render grid. The listener doesn't say whether the type or
+     * the variation changed, so both are recorded.
+     */
+    private void recordTileChange(int x, int y) {
+        TileType type = grid.typeAt(x, y);
+        tileChanges.add(((long) x << 40) | ((long) y << 16) | ((long) grid.variationAt(x, y) << 8) | type.ordinal());
+        tileChangesWritten++;
+    }
+
+    /**
+     * Render side: bring the render grid up to date with the snapshot, which may be several updates on.
+     */
+    private void applyTileChanges(long upTo) {
+        TileType[] types = TileType.values();
+        while (tileChangesApplied < upTo) {
+            long change = tileChanges.remove();
+            int x = (int) (change >>> 40);
+            int y = (int) (change >>> 16) & 0xFFFFFF;
+            renderGrid.setTile(x, y, types[(int) change & 0xFF]);
+            renderGrid.setTextureVariation(x, y, (int) (change >>> 8) & 0xFF);
+            tileChangesApplied++;
+        }
+    }
 
-        // HUD (screen space — no camera transform)
-        renderHUD();
+    private void renderWorld() {
+        gridRenderer.renderer(viewCamera, windowManager.getWidth(), windowManager.getHeight());
     }
 
     /**
      * Push the same camera matrix the grid uses so entities sit correctly on tiles.
      */
-    private void renderEntitiesInWorldSpace(int viewportW, int viewportH) {
+    private void renderEntitiesInWorldSpace() {
+        int viewportW = windowManager.getWidth();
+        int viewportH = windowManager.getHeight();
         GL11.glPushMatrix();
 
-        float zoom = camera.getZoom();
+        float zoom = viewCamera.getZoom();
         GL11.glTranslatef(viewportW / 2f, viewportH / 2f, 0);
         GL11.glScalef(zoom, zoom, 1);
-        GL11.glTranslatef(-camera.getX(), -camera.getY(), 0);
+        GL11.glTranslatef(-viewCamera.getX(), -viewCamera.getY(), 0);
 
-        entityManager.render();
+        entityBatch.begin();
+        current.entities.render(entityBatch, renderAlpha, viewCamera, viewportW, viewportH);
+        entityBatch.end();
+        Logger.debugOnChange(getClass(), "entity_batch_flushes", "Entity batch flushes", entityBatch.getFlushCount());
+        Logger.debugOnChange(getClass(), "entities_visible", "Entities visible",
+                current.entities.getVisibleCount() + "/" + current.entities.size());
 
         GL11.glPopMatrix();
     }
@@ -239,64 +401,67 @@ public class PlayState extends GameState {
     /**
      * Dialogue box and any other HUD elements — rendered in screen space after the world.
      */
-    private void renderHUD() {
-        if (activeDialogue != null) {
-            renderDialogueBox(activeDialogue);
+    private void renderHUD(RenderQueue queue) {
+        if (current.dialogue != null) {
+            String dialogue = current.dialogue;
+            queue.submit(RenderQueue.LAYER_HUD, BlendMode.ALPHA, null, this::renderDialogueBox);
+            queue.submit(RenderQueue.LAYER_HUD_TEXT, BlendMode.ALPHA, textRenderer.getGlyphTexture(),
+                    () -> renderDialogueText(dialogue));
         }
 
         // "Press E" hint when near NPC and not already talking
-        if (activeDialogue == null
-                && questNPC.isInRange(player.getX(), player.getY(), INTERACT_RADIUS)) {
+        if (current.interactHint) {
             renderInteractHint();
         }
 
-        renderInventory();
+        queue.submit(RenderQueue.LAYER_HUD_TEXT, BlendMode.ALPHA, textRenderer.getGlyphTexture(),
+                this::renderInventory);
     }
 
     private void renderInventory() {
         TextRenderer textRenderer = TextRenderer.getInstance();
         textRenderer.drawText(
-                ItemType.WOOD.getName() +": " + player.getInventory().getCount(ItemType.WOOD),
+                ItemType.WOOD.getName() +": " + current.wood,
                 20, 20, 1.0f, 1f, 1f, 1f
         );
     }
 
 
-    private void renderDialogueBox(String text) {
-        int w = windowManager.getWidth();
-        int h = windowManager.getHeight();
+    private float dialogueBoxX() {
+        return 40f;
+    }
 
-        float boxH  = 80f;
-        float boxY  = h - boxH - 20f;
-        float boxX  = 40f;
-        float boxW  = w - 80f;
+    private float dialogueBoxY() {
+        return windowManager.getHeight() - DIALOGUE_BOX_HEIGHT - 20f;
+    }
 
-        // Semi-transparent dark background
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-        GL11.glColor4f(0.05f, 0.05f, 0.1f, 0.85f);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(boxX,        boxY);
-        GL11.glVertex2f(boxX + boxW, boxY);
-        GL11.glVertex2f(boxX + boxW, boxY + boxH);
-        GL11.glVertex2f(boxX,        boxY + boxH);
-        GL11.glEnd();
-        GL11.glDisable(GL11.GL_BLEND);
+    private float dialogueBoxWidth() {
+        return windowManager.getWidth() - 80f;
+    }
 
+    private void renderDialogueBox() {
+        float boxX = dialogueBoxX();
+        float boxY = dialogueBoxY();
+        float boxW = dialogueBoxWidth();
+
+        hudBatch.begin();
+        // Semi-transparent dark background
+        hudBatch.fillRect(boxX, boxY, boxW, DIALOGUE_BOX_HEIGHT, 0.05f, 0.05f, 0.1f, 0.85f);
         // Border
-        GL11.glColor3f(0.6f, 0.5f, 0.2f);
-        GL11.glLineWidth(1.5f);
-        GL11.glBegin(GL11.GL_LINE_LOOP);
-        GL11.glVertex2f(boxX,        boxY);
-        GL11.glVertex2f(boxX + boxW, boxY);
-        GL11.glVertex2f(boxX + boxW, boxY + boxH);
-        GL11.glVertex2f(boxX,        boxY + boxH);
-        GL11.glEnd();
-
-        // "Press E to continue" hint in corner
-        // Text rendering is still placeholder blocks — replace when bitmap fonts land
+        hudBatch.strokeRect(boxX, boxY, boxW, DIALOGUE_BOX_HEIGHT, 1.5f, 0.6f, 0.5f, 0.2f, 1.0f);
+        hudBatch.end();
+    }
+
+    /**
+     * Dialogue line plus the "[E] continue" hint in the corner, drawn over {@link #renderDialogueBox()}.
+     */
+    private void renderDialogueText(String text) {
+        float boxX = dialogueBoxX();
+        float boxY = dialogueBoxY();
+        float boxW = dialogueBoxWidth();
+
         textRenderer.drawText(text, boxX + 16, boxY + 20, 1.2f, 1f, 1f, 0.9f);
-        textRenderer.drawText("[E] continue", boxX + boxW - 120, boxY + boxH - 20, 1f, 0.6f, 0.6f, 0.6f);
+        textRenderer.drawText("[E] continue", boxX + boxW - 120, boxY + DIALOGUE_BOX_HEIGHT - 20, 1f, 0.6f, 0.6f, 0.6f);
     }
 
     private void renderInteractHint() {
@@ -308,5 +473,30 @@ public class PlayState extends GameState {
     @Override
     public void cleanup() {
         entityManager.clear();
+        entityBatch.cleanup();
+        hudBatch.cleanup();
+        UIManager.getInstance().clearAll();
+        minimap.cleanup();
+        gridRenderer.cleanup();
+        tileTextures.cleanup();
+    }
+
+    /**
+     * Everything render needs from one update. Written on the simulation thread and read-only once published.
+     */
+    static final class Snapshot {
+        private final Camera camera = new Camera(0, 0, 1);
+        private final EntitySnapshot entities = new EntitySnapshot();
+        private float playerX;
+        private float playerY;
+        private float npcX;
+        private float npcY;
+        private String dialogue;
+        private boolean interactHint;
+        private int wood;
+        private GridRenderer.RenderMode renderMode;
+        private boolean gridLinesVisible;
+        // Entries of the tile change log this snapshot includes
+        private long tileChanges;
     }
 }
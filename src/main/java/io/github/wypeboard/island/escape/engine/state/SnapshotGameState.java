@@ -0,0 +1,57 @@
+package io.github.wypeboard.island.escape.engine.state;
+
+/**
+ * A state that renders only from snapshots of its simulation, so {@link #update(double)} can run on the
+ * simulation thread while the GL thread renders. After every update the state copies what rendering
+ * needs into a snapshot of type {@code S}; render gets the most recent one, handed over through a
+ * lock-free triple buffer.
+ * <p>
+ * {@link #init()} and {@link #cleanup()} still run on the GL thread. {@link #render(Object, float)}
+ * must not read anything {@link #update(double)} writes except through the snapshot.
+ */
+public abstract class SnapshotGameState<S> extends GameState {
+
+    private TripleBuffer<S> snapshots;
+
+    /**
+     * A new, empty snapshot. Called three times when the state is entered.
+     */
+    protected abstract S createSnapshot();
+
+    /**
+     * Overwrite every field of {@code snapshot} with the current simulation state. The snapshot is one
+     * used before, so anything not written keeps an old value.
+     */
+    protected abstract void writeSnapshot(S snapshot);
+
+    /**
+     * Draw the given snapshot. Called on the GL thread.
+     *
+     * @param alpha how far this frame is from the snapshot's update towards the next, 0 to 1
+     */
+    protected abstract void render(S snapshot, float alpha);
+
+    @Override
+    public void onEnter() {
+        super.onEnter();
+        if (snapshots == null) {
+            snapshots = new TripleBuffer<>(this::createSnapshot);
+        }
+    }
+
+    @Override
+    public boolean supportsThreadedUpdate() {
+        return true;
+    }
+
+    @Override
+    public final void publishSnapshot() {
+        writeSnapshot(snapshots.back());
+        snapshots.publish();
+    }
+
+    @Override
+    public final void render(float alpha) {
+        render(snapshots.front(), alpha);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.wypeboard.island.escape.engine.state;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Three preallocated objects handed between one writer and one reader thread without locks. The writer
+ * fills {@link #back()} and {@link #publish()}es it; the reader takes the most recently published one
+ * with {@link #front()}. Neither side ever waits, and an object is never written while the reader holds it.
+ * <p>
+ * The reader may skip publications when the writer is faster, so objects must describe complete state,
+ * not changes since the previous one.
+ */
+final class TripleBuffer<T> {
+
+    // The middle slot: low two bits are its index, FRESH is set while it holds an unread publication
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100;
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // Owned by the writer and the reader respectively
+    private int back;
+    private int front = 2;
+
+    TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * The object to fill before the next {@link #publish()}. Writer only; holds stale data from an earlier round.
+     */
+    @SuppressWarnings("unchecked")
+    T back() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Make the back object the latest and take a free one as the new back. Writer only.
+     */
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * The latest published object, or the same one as last time if nothing new was published. Reader only;
+     * valid until the next call.
+     */
+    @SuppressWarnings("unchecked")
+    T front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+}
@@ -10,6 +10,8 @@ public final class UIBounds {
     private float width;
     private float height;
 
+    private int revision;
+
     public UIBounds(float x, float y, float width, float height) {
         this.x = x;
         this.y = y;
@@ -43,26 +45,46 @@ public final class UIBounds {
         return height;
     }
 
+    /**
+     * Bumped by every setter that actually moves or resizes the bounds; anchored elements re-set the
+     * same position each frame without changing it.
+     */
+    public int getRevision() {
+        return revision;
+    }
+
     public void setX(float x) {
-        this.x = x;
+        if (x != this.x) {
+            this.x = x;
+            revision++;
+        }
     }
 
     public void setY(float y) {
-        this.y = y;
+        if (y != this.y) {
+            this.y = y;
+            revision++;
+        }
     }
 
     public void setWidth(float width) {
-        this.width = width;
+        if (width != this.width) {
+            this.width = width;
+            revision++;
+        }
     }
 
     public void setHeight(float height) {
-        this.height = height;
+        if (height != this.height) {
+            this.height = height;
+            revision++;
+        }
     }
 
     public void setBounds(float x, float y, float width, float height) {
-        this.x = x;
-        this.y = y;
-        this.width = width;
-        this.height = height;
+        setX(x);
+        setY(y);
+        setWidth(width);
+        setHeight(height);
     }
 }
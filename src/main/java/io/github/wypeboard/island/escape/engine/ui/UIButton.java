@@ -1,9 +1,9 @@
 package io.github.wypeboard.island.escape.engine.ui;
 
 import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
 import io.github.wypeboard.island.escape.engine.input.MouseManager;
 import io.github.wypeboard.island.escape.utils.Logger;
-import org.lwjgl.opengl.GL11;
 
 import java.util.Optional;
 
@@ -19,6 +19,8 @@ public final class UIButton implements UIElement {
     private boolean visible = true;
     private boolean enabled = true;
     private boolean hovered = false;
+    // Bumped whenever the button would draw differently; bounds track their own
+    private int revision;
 
 
     private float normalR = 0.5f;
@@ -59,12 +61,12 @@ public final class UIButton implements UIElement {
         anchor.ifPresent(x -> updatePosition());
 
         if (!visible || !enabled) {
-            hovered = false;
+            setHovered(false);
             return;
         }
 
         MouseManager mouseManager = MouseManager.getInstance();
-        hovered = bounds.containsMouse();
+        setHovered(bounds.containsMouse());
 
         Logger.debugOnChange(getClass(), "button_" + label + "_hovered", hovered);
         // Log mouse position when hovering this button
@@ -91,7 +93,7 @@ public final class UIButton implements UIElement {
     }
 
     @Override
-    public void render() {
+    public void render(UIBatch batch) {
         if (!visible) {
             return;
         }
@@ -117,19 +119,13 @@ public final class UIButton implements UIElement {
         float width = bounds.getWidth();
         float height = bounds.getHeight();
 
-        GL11.glColor3f(r, g, b);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x, y);
-        GL11.glVertex2f(x + width, y);
-        GL11.glVertex2f(x + width, y + height);
-        GL11.glVertex2f(x, y + height);
-        GL11.glEnd();
+        batch.fillRect(x, y, width, height, r, g, b, 1.0f);
 
         if (label != null && !label.isEmpty()) {
             TextRenderer textRenderer = TextRenderer.getInstance();
             float centerX = x + width / 2;
             float centerY = y + (height - textRenderer.getTextHeight(textScale)) / 2;
-            textRenderer.drawTextCentered(label, centerX, centerY, textScale, textR, textG, textB);
+            batch.drawTextCentered(label, centerX, centerY, textScale, textR, textG, textB);
         }
     }
 
@@ -140,7 +136,10 @@ public final class UIButton implements UIElement {
 
     @Override
     public void setVisible(boolean visible) {
-        this.visible = visible;
+        if (visible != this.visible) {
+            this.visible = visible;
+            revision++;
+        }
     }
 
     @Override
@@ -150,13 +149,28 @@ public final class UIButton implements UIElement {
 
     @Override
     public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+        if (enabled != this.enabled) {
+            this.enabled = enabled;
+            revision++;
+        }
     }
 
     public boolean isHovered() {
         return hovered;
     }
 
+    private void setHovered(boolean hovered) {
+        if (hovered != this.hovered) {
+            this.hovered = hovered;
+            revision++;
+        }
+    }
+
+    @Override
+    public int getRevision() {
+        return revision + bounds.getRevision();
+    }
+
     public void setColors(float normalR, float normalG, float normalB,
                           float hoverR, float hoverG, float hoverB) {
         this.normalR = normalR;
@@ -165,16 +179,19 @@ public final class UIButton implements UIElement {
         this.hoverR = hoverR;
         this.hoverG = hoverG;
         this.hoverB = hoverB;
+        revision++;
     }
 
     public void setTextColor(float r, float g, float b) {
         this.textR = r;
         this.textG = g;
         this.textB = b;
+        revision++;
     }
 
     public void setTextScale(float scale) {
         this.textScale = scale;
+        revision++;
     }
 
     public void setAnchor(UIAnchor anchor) {
@@ -1,10 +1,21 @@
 package io.github.wypeboard.island.escape.engine.ui;
 
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
+
 public interface UIElement {
 
     void update(double delta);
 
-    void render();
+    /**
+     * Submit this element's quads and text to the frame's UI batch; nothing is drawn until UIManager ends it.
+     */
+    void render(UIBatch batch);
+
+    /**
+     * Changes whenever anything this element draws changes — text, colours, visibility, hover state or
+     * bounds. Cached panels compare it to decide whether to redraw.
+     */
+    int getRevision();
 
     boolean isVisible();
 
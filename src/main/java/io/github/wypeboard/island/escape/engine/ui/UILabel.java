@@ -1,8 +1,9 @@
 package io.github.wypeboard.island.escape.engine.ui;
 
 import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
-import org.lwjgl.opengl.GL11;
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
 
+import java.util.Objects;
 import java.util.Optional;
 
 public final class UILabel implements UIElement {
@@ -32,6 +33,9 @@ public final class UILabel implements UIElement {
     private float bgB = 0.0f;
     private float bgAlpha = 0.7f;
 
+    // Bumped whenever the label would draw differently; bounds track their own
+    private int revision;
+
 
     public UILabel(float x, float y, float width, float height, String text) {
         this.bounds = new UIBounds(x, y, width, height);
@@ -89,7 +93,7 @@ public final class UILabel implements UIElement {
     }
 
     @Override
-    public void render() {
+    public void render(UIBatch batch) {
         if (!visible || text == null || text.isEmpty()) {
             return;
         }
@@ -102,18 +106,7 @@ public final class UILabel implements UIElement {
         float height = bounds.getHeight();
 
         if (showBackground) {
-            GL11.glBegin(GL11.GL_BLEND);
-            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-
-            GL11.glColor4f(bgR, bgG, bgB, bgAlpha);
-            GL11.glBegin(GL11.GL_QUADS);
-            GL11.glVertex2f(x, y);
-            GL11.glVertex2f(x + width, y);
-            GL11.glVertex2f(x + width, y + height);
-            GL11.glVertex2f(x, y + height);
-            GL11.glEnd();
-
-            GL11.glDisable(GL11.GL_BLEND);
+            batch.fillRect(x, y, width, height, bgR, bgG, bgB, bgAlpha);
         }
 
         // Render text based on alignment
@@ -121,15 +114,15 @@ public final class UILabel implements UIElement {
 
         switch (alignment) {
             case LEFT:
-                textRenderer.drawText(text, x, textY, textScale, colorR, colorG, colorB);
+                batch.drawText(text, x, textY, textScale, colorR, colorG, colorB);
                 break;
             case CENTER:
                 float centerX = x + width / 2;
-                textRenderer.drawTextCentered(text, centerX, textY, textScale, colorR, colorG, colorB);
+                batch.drawTextCentered(text, centerX, textY, textScale, colorR, colorG, colorB);
                 break;
             case RIGHT:
                 float rightX = x + width;
-                textRenderer.drawTextRight(text, rightX, textY, textScale, colorR, colorG, colorB);
+                batch.drawTextRight(text, rightX, textY, textScale, colorR, colorG, colorB);
                 break;
         }
     }
@@ -141,7 +134,10 @@ public final class UILabel implements UIElement {
 
     @Override
     public void setVisible(boolean visible) {
-        this.visible = visible;
+        if (visible != this.visible) {
+            this.visible = visible;
+            revision++;
+        }
     }
 
     @Override
@@ -154,12 +150,21 @@ public final class UILabel implements UIElement {
         this.enabled = enabled;
     }
 
+    @Override
+    public int getRevision() {
+        return revision + bounds.getRevision();
+    }
+
     public String getText() {
         return text;
     }
 
     public void setText(String text) {
+        if (Objects.equals(text, this.text)) {
+            return;
+        }
         this.text = text;
+        revision++;
 
         anchor.ifPresent(anch -> {
             TextRenderer textRenderer = TextRenderer.getInstance();
@@ -176,10 +181,12 @@ public final class UILabel implements UIElement {
         this.colorR = r;
         this.colorG = g;
         this.colorB = b;
+        revision++;
     }
 
     public void setTextScale(float textScale) {
         this.textScale = textScale;
+        revision++;
 
         anchor.ifPresent(anch -> {
             TextRenderer textRenderer = TextRenderer.getInstance();
@@ -192,10 +199,12 @@ public final class UILabel implements UIElement {
 
     public void setAlignment(Alignment alignment) {
         this.alignment = alignment;
+        revision++;
     }
 
     public void setShowBackground(boolean show) {
         this.showBackground = show;
+        revision++;
     }
 
     public void setBackgroundColor(float r, float g, float b, float alpha) {
@@ -203,6 +212,7 @@ public final class UILabel implements UIElement {
         this.bgG = g;
         this.bgB = b;
         this.bgAlpha = alpha;
+        revision++;
     }
 
     public void setAnchor(UIAnchor anchor) {
@@ -1,12 +1,25 @@
 package io.github.wypeboard.island.escape.engine.ui;
 
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderQueue;
+import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
+import io.github.wypeboard.island.escape.engine.profiling.Profiler;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public final class UIManager {
 
+    private static final int PROFILE_UPDATE = Profiler.scope("UIManager.update");
+    private static final int PROFILE_RENDER = Profiler.scope("UIManager.render");
+
     private static UIManager instance;
     private final List<UIElement> rootElements = new ArrayList<>();
+    // Kept as a field so queuing the UI each frame doesn't allocate
+    private final RenderQueue.Command renderCommand = this::renderElements;
+    // Created on first render, once there is a GL context
+    private UIBatch batch;
 
     private UIManager() {
         // Private constructor for singleton
@@ -32,13 +45,46 @@ public final class UIManager {
     }
 
     public void update(double deltaTime) {
+        Profiler.begin(PROFILE_UPDATE);
         // Update in reverse order so top elements get priority
         for (int i = rootElements.size() - 1; i >= 0; i--) {
             rootElements.get(i).update(deltaTime);
         }
+        Profiler.end(PROFILE_UPDATE);
     }
 
+    /**
+     * Queue the whole UI as one command on the UI layer. Elements are collected into one batch inside it.
+     */
     public void render() {
-        rootElements.forEach(UIElement::render);
+        RenderQueue.getInstance().submit(RenderQueue.LAYER_UI, BlendMode.ALPHA,
+                TextRenderer.getInstance().getGlyphTexture(), renderCommand);
+    }
+
+    /**
+     * Draw calls the UI took last frame — one per glyph page in use, however many elements there are.
+     */
+    public int getLastDrawCallCount() {
+        return batch == null ? 0 : batch.getDrawCallCount();
+    }
+
+    public void cleanup() {
+        if (batch != null) {
+            batch.cleanup();
+            batch = null;
+        }
+    }
+
+    private void renderElements() {
+        if (batch == null) {
+            batch = new UIBatch();
+        }
+        Profiler.begin(PROFILE_RENDER);
+        batch.begin();
+        for (UIElement element : rootElements) {
+            element.render(batch);
+        }
+        batch.end();
+        Profiler.end(PROFILE_RENDER);
     }
 }
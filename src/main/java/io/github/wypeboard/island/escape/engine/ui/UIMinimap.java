@@ -0,0 +1,166 @@
+package io.github.wypeboard.island.escape.engine.ui;
+
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
+import io.github.wypeboard.island.escape.engine.graphics.world.Grid;
+import io.github.wypeboard.island.escape.engine.graphics.world.GridOverview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * HUD map of the whole grid with markers on top. The map is a {@link GridOverview} texture in the tile
+ * types' fallback colours, so the grid is never rescanned: only tiles changed through
+ * {@link Grid#setTile} are rewritten, and uploaded once per frame. Large worlds are reduced to at most
+ * {@link #MAX_TEXTURE_SIZE} texels across.
+ */
+public final class UIMinimap implements UIElement {
+
+    private static final int MAX_TEXTURE_SIZE = 256;
+    private static final float BORDER = 2f;
+    private static final float MARKER_SIZE = 4f;
+
+    private final UIBounds bounds;
+    private final Grid grid;
+    private final float tileSize;
+    private final List<Marker> markers = new ArrayList<>();
+
+    private final UIAnchor anchor;
+
+    private boolean visible = true;
+    private boolean enabled = true;
+
+    // Created on first render, once there is a GL context
+    private GridOverview overview;
+    private int revision;
+
+    /**
+     * @param tileSize world units per tile, to place markers given in world coordinates
+     */
+    public UIMinimap(UIAnchor anchor, float width, float height, Grid grid, float tileSize) {
+        this.anchor = anchor;
+        this.bounds = new UIBounds(0, 0, width, height);
+        this.grid = grid;
+        this.tileSize = tileSize;
+        updatePosition();
+    }
+
+    /**
+     * Show a dot at the centre of whatever bounds {@code source} returns each frame, in world coordinates.
+     */
+    public void addMarker(Supplier<UIBounds> source, float r, float g, float b) {
+        markers.add(new Marker(source, r, g, b));
+        revision++;
+    }
+
+    public void clearMarkers() {
+        markers.clear();
+        revision++;
+    }
+
+    @Override
+    public void update(double delta) {
+        updatePosition();
+    }
+
+    private void updatePosition() {
+        bounds.setX(anchor.calculateX(bounds.getWidth()));
+        bounds.setY(anchor.calculateY(bounds.getHeight()));
+    }
+
+    @Override
+    public void render(UIBatch batch) {
+        if (!visible) {
+            return;
+        }
+        if (overview == null) {
+            overview = new GridOverview(grid, MAX_TEXTURE_SIZE, null);
+        }
+        // Uploads only the tiles edited since last frame
+        overview.update();
+
+        float x = bounds.getX();
+        float y = bounds.getY();
+        float width = bounds.getWidth();
+        float height = bounds.getHeight();
+
+        batch.fillRect(x - BORDER, y - BORDER, width + BORDER * 2, height + BORDER * 2, 0.0f, 0.0f, 0.0f, 0.8f);
+        // Opaque, so drawing it as premultiplied changes nothing
+        batch.drawPremultiplied(overview.getTexture(), x, y, width, height,
+                0, 0, overview.getMaxU(), overview.getMaxV());
+
+        batch.pushLayer();
+        float scaleX = width / (grid.getWidth() * tileSize);
+        float scaleY = height / (grid.getHeight() * tileSize);
+        for (Marker marker : markers) {
+            UIBounds target = marker.source.get();
+            float markerX = x + (target.getX() + target.getWidth() / 2) * scaleX;
+            float markerY = y + (target.getY() + target.getHeight() / 2) * scaleY;
+            batch.fillRect(markerX - MARKER_SIZE / 2, markerY - MARKER_SIZE / 2, MARKER_SIZE, MARKER_SIZE,
+                    marker.r, marker.g, marker.b, 1.0f);
+        }
+        batch.popLayer();
+    }
+
+    /**
+     * Changes with the map's tiles and with every marker movement.
+     */
+    @Override
+    public int getRevision() {
+        int result = revision + bounds.getRevision() + (overview == null ? 0 : overview.getRevision());
+        for (Marker marker : markers) {
+            UIBounds target = marker.source.get();
+            result = result * 31 + Float.floatToIntBits(target.getX());
+            result = result * 31 + Float.floatToIntBits(target.getY());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        if (visible != this.visible) {
+            this.visible = visible;
+            revision++;
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public UIBounds getBounds() {
+        return bounds;
+    }
+
+    public void cleanup() {
+        if (overview != null) {
+            overview.cleanup();
+            overview = null;
+        }
+    }
+
+    private static final class Marker {
+        private final Supplier<UIBounds> source;
+        private final float r;
+        private final float g;
+        private final float b;
+
+        private Marker(Supplier<UIBounds> source, float r, float g, float b) {
+            this.source = source;
+            this.r = r;
+            this.g = g;
+            this.b = b;
+        }
+    }
+}
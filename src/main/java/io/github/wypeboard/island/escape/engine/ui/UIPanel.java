@@ -1,10 +1,20 @@
 package io.github.wypeboard.island.escape.engine.ui;
 
-import org.lwjgl.opengl.GL11;
+import io.github.wypeboard.island.escape.engine.graphics.BlendMode;
+import io.github.wypeboard.island.escape.engine.graphics.RenderTarget;
+import io.github.wypeboard.island.escape.engine.graphics.UIBatch;
+import io.github.wypeboard.island.escape.utils.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A background rectangle with child elements drawn over it.
+ * <p>
+ * With {@link #setCached(boolean)} the panel draws its whole subtree into a {@link RenderTarget} and
+ * from then on submits a single textured quad, until the revision of the panel or any descendant
+ * changes. Anything a child draws outside the panel's bounds is clipped while cached.
+ */
 public final class UIPanel implements UIElement {
 
     private final UIBounds bounds;
@@ -18,20 +28,35 @@ public final class UIPanel implements UIElement {
     private float backgroundB = 0.2f;
     private float backgroundA = 0.8f;
 
+    // Bumped whenever the panel itself would draw differently, including its child list
+    private int revision;
+
+    private boolean cached;
+    private RenderTarget cacheTarget;
+    private UIBatch cacheBatch;
+    private int cachedRevision;
+    private boolean cacheValid;
+    private int cacheHits;
+    private int cacheMisses;
+
     public UIPanel(float x, float y, float width, float height) {
         this.bounds = new UIBounds(x, y, width, height);
     }
 
     public void addChild(UIElement child) {
         children.add(child);
+        revision++;
     }
 
     public void removeChild(UIElement child) {
-        children.remove(child);
+        if (children.remove(child)) {
+            revision++;
+        }
     }
 
     public void clearChildren() {
         children.clear();
+        revision++;
     }
 
     public List<UIElement> getChildren() {
@@ -50,32 +75,75 @@ public final class UIPanel implements UIElement {
     }
 
     @Override
-    public void render() {
+    public void render(UIBatch batch) {
         if (!visible) {
             return;
         }
+        if (cached && RenderTarget.isSupported()) {
+            renderCached(batch);
+        } else {
+            renderContents(batch);
+        }
+    }
 
-        // Render background
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    private void renderContents(UIBatch batch) {
+        batch.fillRect(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(),
+                backgroundR, backgroundG, backgroundB, backgroundA);
 
-        float x = bounds.getX();
-        float y = bounds.getY();
-        float width = bounds.getWidth();
-        float height = bounds.getHeight();
+        // Children one layer up so they always draw over the background
+        batch.pushLayer();
+        for (UIElement child : children) {
+            child.render(batch);
+        }
+        batch.popLayer();
+    }
 
-        GL11.glColor4f(backgroundR, backgroundG, backgroundB, backgroundA);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x, y);
-        GL11.glVertex2f(x + width, y);
-        GL11.glVertex2f(x + width, y + height);
-        GL11.glVertex2f(x, y + height);
-        GL11.glEnd();
+    private void renderCached(UIBatch batch) {
+        int width = Math.max(1, (int) Math.ceil(bounds.getWidth()));
+        int height = Math.max(1, (int) Math.ceil(bounds.getHeight()));
+        if (cacheTarget != null && (cacheTarget.getWidth() != width || cacheTarget.getHeight() != height)) {
+            cacheTarget.cleanup();
+            cacheTarget = null;
+        }
 
-        GL11.glDisable(GL11.GL_BLEND);
+        int currentRevision = getRevision();
+        if (cacheTarget == null || !cacheValid || currentRevision != cachedRevision) {
+            cacheMisses++;
+            if (cacheTarget == null) {
+                cacheTarget = new RenderTarget(width, height);
+            }
+            if (cacheBatch == null) {
+                cacheBatch = new UIBatch(BlendMode.OFFSCREEN);
+            }
+            // Drawn right away — the outer batch only draws once the whole UI has been collected
+            cacheTarget.begin(bounds.getX(), bounds.getY());
+            cacheBatch.begin();
+            renderContents(cacheBatch);
+            cacheBatch.end();
+            cacheTarget.end();
+            cachedRevision = currentRevision;
+            // Glyphs still waiting to be rasterised would otherwise stay missing from the cache
+            cacheValid = cacheBatch.isComplete();
+        } else {
+            cacheHits++;
+        }
 
-        // Render all children
-        children.forEach(UIElement::render);
+        // Framebuffer textures are bottom-up, so the top of the panel is at v = 1
+        batch.drawPremultiplied(cacheTarget.getTexture(), bounds.getX(), bounds.getY(), width, height,
+                0, 1, 1, 0);
+    }
+
+    /**
+     * Own revision plus the bounds, folded together with every child's, so a change anywhere in the
+     * subtree changes the result.
+     */
+    @Override
+    public int getRevision() {
+        int result = revision + bounds.getRevision();
+        for (UIElement child : children) {
+            result = result * 31 + child.getRevision();
+        }
+        return result;
     }
 
     @Override
@@ -85,7 +153,10 @@ public final class UIPanel implements UIElement {
 
     @Override
     public void setVisible(boolean visible) {
-        this.visible = visible;
+        if (visible != this.visible) {
+            this.visible = visible;
+            revision++;
+        }
     }
 
     @Override
@@ -107,5 +178,56 @@ public final class UIPanel implements UIElement {
         this.backgroundG = g;
         this.backgroundB = b;
         this.backgroundA = a;
+        revision++;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Draw the subtree once into an offscreen texture and reuse it while nothing in it changes.
+     * Needs framebuffer objects (GL 3.0); without them the panel keeps drawing normally.
+     */
+    public void setCached(boolean cached) {
+        this.cached = cached;
+        if (!cached) {
+            releaseCache();
+        } else if (!RenderTarget.isSupported()) {
+            Logger.debug(getClass(), "Framebuffers unavailable, panel drawn without caching");
+        }
+    }
+
+    /**
+     * Frames the cached texture was reused.
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Frames the subtree had to be drawn into the cache again.
+     */
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Free the offscreen texture; the panel keeps working and rebuilds it if still cached.
+     */
+    public void cleanup() {
+        releaseCache();
+    }
+
+    private void releaseCache() {
+        if (cacheTarget != null) {
+            cacheTarget.cleanup();
+            cacheTarget = null;
+        }
+        if (cacheBatch != null) {
+            cacheBatch.cleanup();
+            cacheBatch = null;
+        }
+        cacheValid = false;
     }
 }
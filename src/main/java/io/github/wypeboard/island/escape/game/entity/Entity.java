@@ -1,5 +1,6 @@
 package io.github.wypeboard.island.escape.game.entity;
 
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
 import io.github.wypeboard.island.escape.engine.ui.UIBounds;
 
 /**
@@ -10,7 +11,38 @@ public interface Entity {
 
     void update(double deltaTime);
 
-    void render();
+    /**
+     * Submit this entity's quads into the shared batch, centred on the given position. Don't issue GL
+     * calls directly — the batch is what keeps hundreds of entities down to a handful of draw calls.
+     * <p>
+     * The position is interpolated between updates by the caller, and with threaded updates this runs
+     * on the GL thread while {@link #update(double)} runs on another: read nothing else that moves.
+     */
+    void render(SpriteBatch batch, float x, float y);
+
+    /**
+     * World position of the centre.
+     */
+    float getX();
+
+    float getY();
+
+    /**
+     * Position before the last update, so rendering can move smoothly in between.
+     */
+    default float getPreviousX() {
+        return getX();
+    }
+
+    default float getPreviousY() {
+        return getY();
+    }
+
+    /**
+     * Half the width and height of what {@link #render} draws around the centre, outlines included.
+     * EntityManager culls with it every update, so unlike {@link #getBounds()} it must not allocate.
+     */
+    float getHalfExtent();
 
     /**
      * Used by PlayState to check proximity for interaction, collision, etc.
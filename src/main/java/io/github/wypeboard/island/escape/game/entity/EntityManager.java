@@ -1,44 +1,109 @@
 package io.github.wypeboard.island.escape.game.entity;
 
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
+import io.github.wypeboard.island.escape.engine.graphics.world.Camera;
+import io.github.wypeboard.island.escape.engine.profiling.Profiler;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Owns all active entities. PlayState creates this and calls update/render each frame.
  * Not a singleton — PlayState owns it directly, keeping scope clear.
+ * <p>
+ * Active entities are kept in a {@link SpatialHash}, rebuilt after anything moves, so rendering only
+ * touches the entities whose bounds reach into the camera's view.
  */
 public final class EntityManager {
 
+    private static final int PROFILE_UPDATE = Profiler.scope("EntityManager.update");
+    // Shared with EntitySnapshot, which renders the same entities in threaded mode
+    static final int PROFILE_RENDER = Profiler.scope("EntityManager.render");
+    // World units per hash cell — a few tiles, so a typical entity sits in one or two cells
+    static final float CELL_SIZE = 128f;
+
     private final List<Entity> entities = new ArrayList<>();
 
+    private final SpatialHash index = new SpatialHash(CELL_SIZE);
+    // The entity in each index slot
+    private Entity[] indexed = new Entity[16];
+    private boolean indexStale = true;
+    private int visibleCount;
+
     public void add(Entity entity) {
         entities.add(entity);
+        indexStale = true;
     }
 
     public void remove(Entity entity) {
         entities.remove(entity);
+        indexStale = true;
     }
     /**
      * Update all active entities, then remove any that became inactive this frame.
      */
     public void update(double deltaTime) {
+        Profiler.begin(PROFILE_UPDATE);
         for (Entity entity : entities) {
             if (entity.isActive()) {
                 entity.update(deltaTime);
             }
         }
         entities.removeIf(e -> !e.isActive());
+        indexStale = true;
+        Profiler.end(PROFILE_UPDATE);
     }
 
     /**
-     * Render all active entities. Order matters — add z-sorting here later if needed.
+     * Render the active entities that {@code camera} can see. Order matters — they are drawn in the order
+     * they were added; add z-sorting here later if needed.
+     *
+     * @param alpha how far the frame is from the last update towards the next, 0 to 1
      */
-    public void render() {
-        for (Entity entity : entities) {
-            if (entity.isActive()) {
-                entity.render();
-            }
+    public void render(SpriteBatch batch, float alpha, Camera camera, float viewportWidth, float viewportHeight) {
+        Profiler.begin(PROFILE_RENDER);
+        if (indexStale) {
+            rebuildIndex();
         }
+        visibleCount = index.query(
+                camera.screenToWorldX(0, viewportWidth), camera.screenToWorldY(0, viewportHeight),
+                camera.screenToWorldX(viewportWidth, viewportWidth), camera.screenToWorldY(viewportHeight, viewportHeight));
+        for (int i = 0; i < visibleCount; i++) {
+            Entity entity = indexed[index.getResult(i)];
+            entity.render(batch,
+                    entity.getPreviousX() + (entity.getX() - entity.getPreviousX()) * alpha,
+                    entity.getPreviousY() + (entity.getY() - entity.getPreviousY()) * alpha);
+        }
+        Profiler.end(PROFILE_RENDER);
+    }
+
+    /**
+     * Record the active entities, their positions and the spatial index, for rendering on another thread.
+     */
+    public void writeSnapshot(EntitySnapshot snapshot) {
+        if (indexStale) {
+            rebuildIndex();
+        }
+        snapshot.clear();
+        for (int slot = 0; slot < index.size(); slot++) {
+            snapshot.add(indexed[slot]);
+        }
+        snapshot.copyIndex(index);
+    }
+
+    /**
+     * Entities drawn by the last {@link #render}.
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Active entities, visible or not, as of the last render or snapshot.
+     */
+    public int getTotalCount() {
+        return index.size();
     }
 
     /**
@@ -57,5 +122,37 @@ public final class EntityManager {
 
     public void clear() {
         entities.clear();
+        Arrays.fill(indexed, null);
+        index.clear();
+        indexStale = true;
+        visibleCount = 0;
+    }
+
+    /**
+     * Index every active entity by its drawn extent stretched over the move since the last update, so
+     * the interpolated position drawn in between is covered too.
+     */
+    private void rebuildIndex() {
+        // Drop the references too, so removed entities can be collected
+        Arrays.fill(indexed, 0, index.size(), null);
+        index.clear();
+        for (Entity entity : entities) {
+            if (!entity.isActive()) {
+                continue;
+            }
+            float half = entity.getHalfExtent();
+            float x = entity.getX();
+            float y = entity.getY();
+            float previousX = entity.getPreviousX();
+            float previousY = entity.getPreviousY();
+            int slot = index.add(
+                    Math.min(x, previousX) - half, Math.min(y, previousY) - half,
+                    Math.max(x, previousX) + half, Math.max(y, previousY) + half);
+            if (slot == indexed.length) {
+                indexed = Arrays.copyOf(indexed, slot * 2);
+            }
+            indexed[slot] = entity;
+        }
+        indexStale = false;
     }
 }
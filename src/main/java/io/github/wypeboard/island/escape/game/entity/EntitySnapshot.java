@@ -0,0 +1,84 @@
+package io.github.wypeboard.island.escape.game.entity;
+
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
+import io.github.wypeboard.island.escape.engine.graphics.world.Camera;
+import io.github.wypeboard.island.escape.engine.profiling.Profiler;
+
+import java.util.Arrays;
+
+/**
+ * The active entities and their positions at one update, filled by {@link EntityManager#writeSnapshot}
+ * and rendered later, possibly on another thread. Carries a copy of the manager's spatial index, so the
+ * render side culls to the view without touching live entity state. Reused between updates, so it only
+ * allocates when the entity count grows.
+ */
+public final class EntitySnapshot {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Entity[] entities = new Entity[INITIAL_CAPACITY];
+    // previous x, previous y, x, y per entity
+    private float[] positions = new float[INITIAL_CAPACITY * 4];
+    private int count;
+    private final SpatialHash index = new SpatialHash(EntityManager.CELL_SIZE);
+    private int visibleCount;
+
+    void clear() {
+        // Drop the references too, so removed entities can be collected
+        Arrays.fill(entities, 0, count, null);
+        count = 0;
+        index.clear();
+    }
+
+    /**
+     * Slots in {@code source} must match the order the entities were added in.
+     */
+    void copyIndex(SpatialHash source) {
+        index.copyFrom(source);
+    }
+
+    void add(Entity entity) {
+        if (count == entities.length) {
+            entities = Arrays.copyOf(entities, count * 2);
+            positions = Arrays.copyOf(positions, count * 2 * 4);
+        }
+        int i = count * 4;
+        entities[count] = entity;
+        positions[i] = entity.getPreviousX();
+        positions[i + 1] = entity.getPreviousY();
+        positions[i + 2] = entity.getX();
+        positions[i + 3] = entity.getY();
+        count++;
+    }
+
+    /**
+     * Draw every entity {@code camera} can see between its recorded previous and current position.
+     *
+     * @param alpha 0 for the previous position, 1 for the current one
+     */
+    public void render(SpriteBatch batch, float alpha, Camera camera, float viewportWidth, float viewportHeight) {
+        Profiler.begin(EntityManager.PROFILE_RENDER);
+        visibleCount = index.query(
+                camera.screenToWorldX(0, viewportWidth), camera.screenToWorldY(0, viewportHeight),
+                camera.screenToWorldX(viewportWidth, viewportWidth), camera.screenToWorldY(viewportHeight, viewportHeight));
+        for (int v = 0; v < visibleCount; v++) {
+            int e = index.getResult(v);
+            int i = e * 4;
+            entities[e].render(batch,
+                    positions[i] + (positions[i + 2] - positions[i]) * alpha,
+                    positions[i + 1] + (positions[i + 3] - positions[i + 1]) * alpha);
+        }
+        Profiler.end(EntityManager.PROFILE_RENDER);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Entities drawn by the last {@link #render}.
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+}
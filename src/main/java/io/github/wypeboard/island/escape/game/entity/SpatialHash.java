@@ -0,0 +1,192 @@
+package io.github.wypeboard.island.escape.game.entity;
+
+import java.util.Arrays;
+
+/**
+ * Finds the entries whose bounds overlap a rectangle without testing every entry. World space is cut
+ * into square cells, and each cell hashes to one of a fixed number of buckets; an entry is listed in
+ * the bucket of every cell its bounds touch. Buckets are shared by distant cells, so a query still
+ * checks the bounds of what it finds.
+ * <p>
+ * Entries are numbered in the order they are added, and queries return them in that order. The hash is
+ * rebuilt rather than updated, since most entities move every update anyway, and stops allocating once
+ * its arrays have grown to the entity count.
+ */
+final class SpatialHash {
+
+    private static final int BUCKET_COUNT = 1024; // power of two, for the mask
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final float cellSize;
+    // First entry of each bucket's list, -1 when empty
+    private final int[] bucketHeads = new int[BUCKET_COUNT];
+
+    // Bucket lists: the slot listed and the next item in the same bucket
+    private int[] itemSlots = new int[INITIAL_CAPACITY];
+    private int[] itemNext = new int[INITIAL_CAPACITY];
+    private int itemCount;
+
+    // min x, min y, max x, max y per slot
+    private float[] bounds = new float[INITIAL_CAPACITY * 4];
+    private int slotCount;
+
+    // Last query each slot was found by, so one listed in several cells is returned once
+    private int[] slotQueries = new int[INITIAL_CAPACITY];
+    private int query;
+    private int[] results = new int[INITIAL_CAPACITY];
+    private int resultCount;
+
+    SpatialHash(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        Arrays.fill(bucketHeads, -1);
+    }
+
+    void clear() {
+        Arrays.fill(bucketHeads, -1);
+        itemCount = 0;
+        slotCount = 0;
+        resultCount = 0;
+    }
+
+    /**
+     * Add an entry covering the given world rectangle.
+     *
+     * @return its slot, one more than the last one added
+     */
+    int add(float minX, float minY, float maxX, float maxY) {
+        int slot = slotCount++;
+        if (slot == slotQueries.length) {
+            bounds = Arrays.copyOf(bounds, slot * 2 * 4);
+            slotQueries = Arrays.copyOf(slotQueries, slot * 2);
+        }
+        int i = slot * 4;
+        bounds[i] = minX;
+        bounds[i + 1] = minY;
+        bounds[i + 2] = maxX;
+        bounds[i + 3] = maxY;
+        slotQueries[slot] = query;
+
+        int firstCellX = cell(minX);
+        int lastCellX = cell(maxX);
+        int firstCellY = cell(minY);
+        int lastCellY = cell(maxY);
+        if ((long) (lastCellX - firstCellX + 1) * (lastCellY - firstCellY + 1) >= BUCKET_COUNT) {
+            // Larger than the table — every bucket would get it anyway
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                link(bucket, slot);
+            }
+            return slot;
+        }
+        for (int cellY = firstCellY; cellY <= lastCellY; cellY++) {
+            for (int cellX = firstCellX; cellX <= lastCellX; cellX++) {
+                link(bucket(cellX, cellY), slot);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Find the entries overlapping the given world rectangle; read them with {@link #getResult(int)}
+     * until the next query.
+     *
+     * @return how many were found
+     */
+    int query(float minX, float minY, float maxX, float maxY) {
+        resultCount = 0;
+        query++;
+        int firstCellX = cell(minX);
+        int lastCellX = cell(maxX);
+        int firstCellY = cell(minY);
+        int lastCellY = cell(maxY);
+        if ((long) (lastCellX - firstCellX + 1) * (lastCellY - firstCellY + 1) >= BUCKET_COUNT) {
+            // Zoomed far out: visiting every bucket once beats visiting some of them many times
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                collect(bucket, minX, minY, maxX, maxY);
+            }
+        } else {
+            for (int cellY = firstCellY; cellY <= lastCellY; cellY++) {
+                for (int cellX = firstCellX; cellX <= lastCellX; cellX++) {
+                    collect(bucket(cellX, cellY), minX, minY, maxX, maxY);
+                }
+            }
+        }
+        // Bucket order is arbitrary; slot order is draw order
+        Arrays.sort(results, 0, resultCount);
+        return resultCount;
+    }
+
+    int getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * Entries added since the last {@link #clear()}.
+     */
+    int size() {
+        return slotCount;
+    }
+
+    /**
+     * Make this hash list the same entries as {@code other}, e.g. to render them on another thread.
+     */
+    void copyFrom(SpatialHash other) {
+        if (other.cellSize != cellSize) {
+            throw new IllegalArgumentException("Cell sizes differ: " + other.cellSize + " and " + cellSize);
+        }
+        System.arraycopy(other.bucketHeads, 0, bucketHeads, 0, BUCKET_COUNT);
+        if (itemSlots.length < other.itemCount) {
+            itemSlots = new int[other.itemSlots.length];
+            itemNext = new int[other.itemNext.length];
+        }
+        System.arraycopy(other.itemSlots, 0, itemSlots, 0, other.itemCount);
+        System.arraycopy(other.itemNext, 0, itemNext, 0, other.itemCount);
+        itemCount = other.itemCount;
+        if (slotQueries.length < other.slotCount) {
+            bounds = new float[other.bounds.length];
+            slotQueries = new int[other.slotQueries.length];
+        }
+        System.arraycopy(other.bounds, 0, bounds, 0, other.slotCount * 4);
+        Arrays.fill(slotQueries, 0, other.slotCount, query);
+        slotCount = other.slotCount;
+        resultCount = 0;
+    }
+
+    private void collect(int bucket, float minX, float minY, float maxX, float maxY) {
+        for (int item = bucketHeads[bucket]; item != -1; item = itemNext[item]) {
+            int slot = itemSlots[item];
+            if (slotQueries[slot] == query) {
+                continue;
+            }
+            int i = slot * 4;
+            if (bounds[i] <= maxX && bounds[i + 2] >= minX && bounds[i + 1] <= maxY && bounds[i + 3] >= minY) {
+                slotQueries[slot] = query;
+                if (resultCount == results.length) {
+                    results = Arrays.copyOf(results, resultCount * 2);
+                }
+                results[resultCount++] = slot;
+            }
+        }
+    }
+
+    private void link(int bucket, int slot) {
+        if (itemCount == itemSlots.length) {
+            itemSlots = Arrays.copyOf(itemSlots, itemCount * 2);
+            itemNext = Arrays.copyOf(itemNext, itemCount * 2);
+        }
+        itemSlots[itemCount] = slot;
+        itemNext[itemCount] = bucketHeads[bucket];
+        bucketHeads[bucket] = itemCount;
+        itemCount++;
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static int bucket(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & (BUCKET_COUNT - 1);
+    }
+}
@@ -1,8 +1,8 @@
 package io.github.wypeboard.island.escape.game.entity.type;
 
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
 import io.github.wypeboard.island.escape.engine.ui.UIBounds;
 import io.github.wypeboard.island.escape.game.entity.Entity;
-import org.lwjgl.opengl.GL11;
 
 /**
  * A stationary NPC with hardcoded dialogue lines and a simple interaction state.
@@ -11,6 +11,7 @@ import org.lwjgl.opengl.GL11;
 public final class Npc implements Entity {
 
     private static final float SIZE = 24f;
+    private static final float OUTLINE_WIDTH = 1.5f;
 
     // Simple state machine — no framework needed for two states
     public enum State {
@@ -40,31 +41,23 @@ public final class Npc implements Entity {
     }
 
     @Override
-    public void render() {
+    public void render(SpriteBatch batch, float x, float y) {
         float half = SIZE / 2f;
 
         // Body — orange so NPCs are visually distinct from the player
-        GL11.glColor3f(0.95f, 0.6f, 0.1f);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x - half, y - half);
-        GL11.glVertex2f(x + half, y - half);
-        GL11.glVertex2f(x + half, y + half);
-        GL11.glVertex2f(x - half, y + half);
-        GL11.glEnd();
-
-        GL11.glColor3f(0.5f, 0.3f, 0.0f);
-        GL11.glLineWidth(1.5f);
-        GL11.glBegin(GL11.GL_LINE_LOOP);
-        GL11.glVertex2f(x - half, y - half);
-        GL11.glVertex2f(x + half, y - half);
-        GL11.glVertex2f(x + half, y + half);
-        GL11.glVertex2f(x - half, y + half);
-        GL11.glEnd();
+        batch.fillRect(x - half, y - half, SIZE, SIZE, 0.95f, 0.6f, 0.1f, 1.0f);
+        batch.strokeRect(x - half, y - half, SIZE, SIZE, OUTLINE_WIDTH, 0.5f, 0.3f, 0.0f, 1.0f);
 
         // Small indicator above NPC when player is nearby — rendered by PlayState,
         // but we draw a subtle "!" when in IDLE so the player knows to approach
     }
 
+    @Override
+    public float getHalfExtent() {
+        // The outline straddles the square's edge
+        return SIZE / 2f + OUTLINE_WIDTH / 2f;
+    }
+
     @Override
     public UIBounds getBounds() {
         float half = SIZE / 2f;
@@ -121,10 +114,12 @@ public final class Npc implements Entity {
         return name;
     }
 
+    @Override
     public float getX() {
         return x;
     }
 
+    @Override
     public float getY() {
         return y;
     }
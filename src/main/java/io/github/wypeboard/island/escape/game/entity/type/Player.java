@@ -1,8 +1,7 @@
 package io.github.wypeboard.island.escape.game.entity.type;
 
-import io.github.wypeboard.island.escape.engine.graphics.TextRenderer;
+import io.github.wypeboard.island.escape.engine.graphics.SpriteBatch;
 import io.github.wypeboard.island.escape.engine.graphics.world.Grid;
-import io.github.wypeboard.island.escape.engine.graphics.world.TileType;
 import io.github.wypeboard.island.escape.engine.input.InputManager;
 import io.github.wypeboard.island.escape.engine.systems.inventory.Inventory;
 import io.github.wypeboard.island.escape.engine.ui.UIBounds;
@@ -10,15 +9,18 @@ import io.github.wypeboard.island.escape.game.entity.Direction;
 import io.github.wypeboard.island.escape.game.entity.Entity;
 import io.github.wypeboard.island.escape.game.resources.ItemType;
 import org.lwjgl.glfw.GLFW;
-import org.lwjgl.opengl.GL11;
 
 public final class Player implements Entity {
 
     private static final float SPEED = 120f; // world pixels per second
     private static final float SIZE = 24f;  // rendered square size
+    private static final float OUTLINE_WIDTH = 1.5f;
 
     private float x; // world position (centre)
     private float y;
+    // Position before the last update, to draw in between updates
+    private float previousX;
+    private float previousY;
 
     private final Grid grid;
     private final int tileSize;
@@ -26,11 +28,14 @@ public final class Player implements Entity {
     private final Inventory inventory = new Inventory();
 
     private boolean active = true;
-    private Direction direction = Direction.NORTH;
+    // Read when rendering, possibly on another thread
+    private volatile Direction direction = Direction.NORTH;
 
     public Player(float startX, float startY, Grid grid, int tileSize) {
         this.x = startX;
         this.y = startY;
+        this.previousX = startX;
+        this.previousY = startY;
         this.grid = grid;
         this.tileSize = tileSize;
     }
@@ -38,6 +43,9 @@ public final class Player implements Entity {
 
     @Override
     public void update(double deltaTime) {
+        previousX = x;
+        previousY = y;
+
         InputManager input = InputManager.getInstance();
         float dt = (float) deltaTime;
 
@@ -71,42 +79,27 @@ public final class Player implements Entity {
     }
 
     @Override
-    public void render() {
-        renderPlayer();
-    }
-
-    private void renderPlayer() {
+    public void render(SpriteBatch batch, float drawX, float drawY) {
         float half = SIZE / 2f;
         // Body — bright green square so it's easy to spot
-        GL11.glColor3f(0.2f, 0.9f, 0.3f);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x - half, y - half);
-        GL11.glVertex2f(x + half, y - half);
-        GL11.glVertex2f(x + half, y + half);
-        GL11.glVertex2f(x - half, y + half);
-        GL11.glEnd();
+        batch.fillRect(drawX - half, drawY - half, SIZE, SIZE, 0.2f, 0.9f, 0.3f, 1.0f);
 
         // Outline so the player is visible against bright tiles
-        GL11.glColor3f(0.0f, 0.4f, 0.1f);
-        GL11.glLineWidth(1.5f);
-        GL11.glBegin(GL11.GL_LINE_LOOP);
-        GL11.glVertex2f(x - half, y - half);
-        GL11.glVertex2f(x + half, y - half);
-        GL11.glVertex2f(x + half, y + half);
-        GL11.glVertex2f(x - half, y + half);
-        GL11.glEnd();
+        batch.strokeRect(drawX - half, drawY - half, SIZE, SIZE, OUTLINE_WIDTH, 0.0f, 0.4f, 0.1f, 1.0f);
 
         // Direction indicator — small dot at the top so you can see which way is "up"
-        GL11.glColor3f(1.0f, 1.0f, 1.0f);
-        GL11.glPointSize(4f);
-        GL11.glBegin(GL11.GL_POINTS);
         switch (direction) {
-            case WEST -> GL11.glVertex2f(x - half + 5f, y);
-            case EAST -> GL11.glVertex2f(x + half - 5f , y);
-            case NORTH -> GL11.glVertex2f(x, y - half + 5f);
-            case SOUTH -> GL11.glVertex2f(x, y + half - 5f);
+            case WEST -> batch.point(drawX - half + 5f, drawY, 4f, 1.0f, 1.0f, 1.0f, 1.0f);
+            case EAST -> batch.point(drawX + half - 5f, drawY, 4f, 1.0f, 1.0f, 1.0f, 1.0f);
+            case NORTH -> batch.point(drawX, drawY - half + 5f, 4f, 1.0f, 1.0f, 1.0f, 1.0f);
+            case SOUTH -> batch.point(drawX, drawY + half - 5f, 4f, 1.0f, 1.0f, 1.0f, 1.0f);
         }
-        GL11.glEnd();
+    }
+
+    @Override
+    public float getHalfExtent() {
+        // The outline straddles the square's edge; the direction dot stays inside it
+        return SIZE / 2f + OUTLINE_WIDTH / 2f;
     }
 
     @Override
@@ -133,19 +126,29 @@ public final class Player implements Entity {
         int tileX = (int) (worldX / tileSize);
         int tileY = (int) (worldY / tileSize);
 
-        return grid.getTile(tileX, tileY)
-                .map(tile -> TileType.getLandTiles().contains(tile.getTileType()))
-                .orElse(false); // off-grid = not walkable
+        return grid.isWalkable(tileX, tileY); // off-grid = not walkable
     }
 
+    @Override
     public float getX() {
         return x;
     }
 
+    @Override
     public float getY() {
         return y;
     }
 
+    @Override
+    public float getPreviousX() {
+        return previousX;
+    }
+
+    @Override
+    public float getPreviousY() {
+        return previousY;
+    }
+
     public Inventory getInventory() {
         return inventory;
     }
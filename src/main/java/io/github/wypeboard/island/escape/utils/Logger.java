@@ -1,18 +1,18 @@
 package io.github.wypeboard.island.escape.utils;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Logger {
 
     private static final boolean DEBUG_ENABLED = true;
 
     // Track last log time for each key to prevent spam
-    private static final Map<String, Long> lastLogTime = new HashMap<>();
+    private static final Map<String, Long> lastLogTime = new ConcurrentHashMap<>();
     private static final long MIN_LOG_INTERVAL_MS = 1000; // Only log same message once per second
 
     // Track value changes to only log when something actually changes
-    private static final Map<String, String> lastLogValue = new HashMap<>();
+    private static final Map<String, String> lastLogValue = new ConcurrentHashMap<>();
 
     private Logger() {
         // Utility class
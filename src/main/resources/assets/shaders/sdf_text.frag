@@ -0,0 +1,17 @@
+#version 120
+
+uniform sampler2D glyphPage;
+
+varying vec2 texCoord;
+
+// Distance value STB writes exactly on the glyph outline (128 / 255)
+const float ON_EDGE = 0.5;
+
+void main() {
+    float distance = texture2D(glyphPage, texCoord).a;
+    // Anti-alias over roughly one screen pixel, whatever the scale. Kept above zero: flat interiors and
+    // solid quads have no gradient, and smoothstep is undefined when both edges are equal
+    float smoothing = max(fwidth(distance) * 0.7, 1e-4);
+    float alpha = smoothstep(ON_EDGE - smoothing, ON_EDGE + smoothing, distance);
+    gl_FragColor = vec4(gl_Color.rgb, gl_Color.a * alpha);
+}
@@ -0,0 +1,10 @@
+#version 120
+
+// Fixed-function inputs, so the SDF path keeps using glOrtho, the modelview stack and glColor
+varying vec2 texCoord;
+
+void main() {
+    texCoord = gl_MultiTexCoord0.xy;
+    gl_FrontColor = gl_Color;
+    gl_Position = ftransform();
+}
@@ -0,0 +1,28 @@
+#version 330
+
+// Must match InstancedTileRenderer.MAX_TILE_TYPES
+#define MAX_TILE_TYPES 16
+
+// Per tile: r = TileType ordinal, g = variation index within that type
+uniform usampler2D tileData;
+uniform sampler2DArray tileLayers;
+
+uniform int typeFirstLayer[MAX_TILE_TYPES];
+uniform int typeLayerCount[MAX_TILE_TYPES];
+uniform vec3 fallbackColor[MAX_TILE_TYPES];
+
+flat in ivec2 tile;
+in vec2 uv;
+
+out vec4 fragColor;
+
+void main() {
+    uvec2 data = texelFetch(tileData, tile, 0).rg;
+    int type = int(data.r);
+
+    if (typeLayerCount[type] == 0) {
+        fragColor = vec4(fallbackColor[type], 1.0);
+        return;
+    }
+    fragColor = texture(tileLayers, vec3(uv, float(typeFirstLayer[type] + int(data.g))));
+}
@@ -0,0 +1,26 @@
+#version 330
+
+// Unit quad corner, 0..1 — the only vertex attribute; everything else comes from the instance id
+layout(location = 0) in vec2 corner;
+
+uniform ivec2 firstTile;
+uniform int columns;
+uniform float tileSize;
+
+// Same transform as the fixed-function path: translate to viewport centre, zoom, offset by camera
+uniform vec2 cameraPosition;
+uniform float zoom;
+uniform vec2 viewportSize;
+
+flat out ivec2 tile;
+out vec2 uv;
+
+void main() {
+    tile = firstTile + ivec2(gl_InstanceID % columns, gl_InstanceID / columns);
+    vec2 world = (vec2(tile) + corner) * tileSize;
+    vec2 screen = (world - cameraPosition) * zoom + viewportSize * 0.5;
+
+    // glOrtho(0, w, h, 0): y points down
+    gl_Position = vec4(screen.x / viewportSize.x * 2.0 - 1.0, 1.0 - screen.y / viewportSize.y * 2.0, 0.0, 1.0);
+    uv = corner;
+}